@@ -3,8 +3,10 @@ package com.company.baseballshop;
 import io.github.cdimascio.dotenv.Dotenv;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BaseballshopApplication {
     public static void main(String[] args) {
         Dotenv dotenv = Dotenv.configure()
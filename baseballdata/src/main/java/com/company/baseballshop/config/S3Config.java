@@ -1,19 +1,72 @@
 package com.company.baseballshop.config;
 
+import com.company.baseballshop.storage.LocalObjectStore;
+import com.company.baseballshop.storage.ObjectStore;
+import com.company.baseballshop.storage.S3AsyncObjectStore;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+
+// 이미지 저장소 설정. storage.type=s3(기본)은 Netty 커넥션 풀 위의 S3AsyncClient, local은 파일 시스템
 @Configuration
 public class S3Config {
 
+    @Value("${storage.s3.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${storage.s3.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Value("${storage.s3.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs;
+
+    @Value("${storage.s3.stream-threads:8}")
+    private int streamThreads;
+
+    @Value("${storage.local.root-dir:./local-storage}")
+    private String localRootDir;
+
+    @Value("${storage.local.public-base-url:http://localhost:8092}")
+    private String localPublicBaseUrl;
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.type", havingValue = "s3", matchIfMissing = true)
+    public S3AsyncClient s3AsyncClient() {
+        return S3AsyncClient.builder()
+                .region(Region.AP_NORTHEAST_1)
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConnections)
+                        .maxPendingConnectionAcquires(maxInFlight * 2)
+                        .connectionAcquisitionTimeout(Duration.ofMillis(acquireTimeoutMs * 2))
+                        .connectionTimeout(Duration.ofSeconds(2))
+                        .readTimeout(Duration.ofSeconds(30))
+                        .writeTimeout(Duration.ofSeconds(30)))
+                .build();
+    }
+
     @Bean
-    public S3Client s3Client() {
-        return S3Client.builder()
+    @ConditionalOnProperty(name = "storage.type", havingValue = "s3", matchIfMissing = true)
+    public ObjectStore s3ObjectStore(S3AsyncClient s3AsyncClient) {
+        S3Presigner presigner = S3Presigner.builder()
                 .region(Region.AP_NORTHEAST_1)
                 .credentialsProvider(DefaultCredentialsProvider.create())
                 .build();
+        return new S3AsyncObjectStore(s3AsyncClient, presigner, maxInFlight, acquireTimeoutMs, streamThreads);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.type", havingValue = "local")
+    public LocalObjectStore localObjectStore() {
+        return new LocalObjectStore(Paths.get(localRootDir), localPublicBaseUrl);
     }
-}
\ No newline at end of file
+}
@@ -46,6 +46,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/login", "/api/auth/register","/api/auth/check-email", "/api/auth/check-nickname","/api/payments/portone").permitAll()
                         .requestMatchers("/login/oauth2/**", "/oauth2/authorize/**", "/favicon.ico").permitAll()
                         .requestMatchers("/api/public/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/stub/portone/**").permitAll() // dev/test 프로필의 포트원 스텁
+                        .requestMatchers(HttpMethod.PUT, "/local-storage/**").permitAll() // storage.type=local 서명 URL 업로드 (서명으로 검증)
                         
 
 
@@ -104,7 +106,7 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:5173", "http://localhost:5174", "https://baseball.teamace.shop"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Set-Cookie"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Set-Cookie", "Idempotency-Key"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -1,6 +1,10 @@
 package com.company.baseballshop.controller;
 
+import com.company.baseballshop.dto.PresignedUploadResponse;
+import com.company.baseballshop.dto.ProductPageResponse;
+import com.company.baseballshop.dto.ProductSummary;
 import com.company.baseballshop.model.Product;
+import com.company.baseballshop.service.FlashSaleService;
 import com.company.baseballshop.service.ProductService;
 import com.company.baseballshop.service.S3Service;
 import lombok.RequiredArgsConstructor;
@@ -13,13 +17,11 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 @Slf4j
 @RestController
@@ -29,6 +31,7 @@ public class AdminProductController {
 
     private final ProductService productService;
     private final S3Service s3Service;
+    private final FlashSaleService flashSaleService;
 
     @GetMapping("/products")
     @PreAuthorize("hasRole('ADMIN')")
@@ -36,23 +39,36 @@ public class AdminProductController {
             @RequestParam(value = "category", required = false) String category,
             @RequestParam(value = "brand", required = false) String brand) {
         log.info("관리자: 상품 조회 요청: category={}, brand={}", category, brand);
-        List<Product> products;
-        if (category != null && !category.isEmpty()) {
-            if (brand != null && !brand.isEmpty()) {
-                products = productService.getProductsByCategoryAndBrand(category, brand);
-            } else {
-                products = productService.getProductsByCategory(category);
-            }
-        } else {
-            products = productService.getAllProducts();
-        }
+        List<Product> products = productService.getProductsForAdmin(category, brand);
         return ResponseEntity.ok(products != null ? products : Collections.emptyList());
     }
 
+    @GetMapping("/products/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getProductPage(
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "brand", required = false) String brand,
+            @RequestParam(value = "discounted", required = false) Boolean discounted,
+            @RequestParam(value = "minPrice", required = false) Integer minPrice,
+            @RequestParam(value = "maxPrice", required = false) Integer maxPrice,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        log.info("관리자: 상품 페이지 조회 요청: category={}, brand={}, sort={}, size={}", category, brand, sort, size);
+        try {
+            ProductPageResponse page = productService.getProductPage(
+                    category, brand, discounted, minPrice, maxPrice, sort, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            log.warn("관리자: 상품 페이지 조회 실패: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/discounted-products")
-    public ResponseEntity<List<Product>> getDiscountedProducts() {
+    public ResponseEntity<List<ProductSummary>> getDiscountedProducts() {
         log.info("할인 상품 조회 요청");
-        List<Product> discountedProducts = productService.getDiscountedProducts();
+        List<ProductSummary> discountedProducts = productService.getDiscountedProducts();
         return ResponseEntity.ok(discountedProducts != null ? discountedProducts : Collections.emptyList());
     }
 
@@ -66,6 +82,41 @@ public class AdminProductController {
                 : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
     }
 
+    @PostMapping("/products/{id}/flash-sale")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> startFlashSale(
+            @PathVariable Long id,
+            @RequestParam(value = "shards", defaultValue = "16") int shards,
+            @RequestParam(value = "maxConcurrent", defaultValue = "64") int maxConcurrent) {
+        log.info("관리자: 플래시 세일 시작 요청: id={}, shards={}, maxConcurrent={}", id, shards, maxConcurrent);
+        try {
+            flashSaleService.activate(id, shards, maxConcurrent);
+            return ResponseEntity.ok(flashSaleService.status(id));
+        } catch (IllegalArgumentException e) {
+            log.warn("관리자: 플래시 세일 시작 실패: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/products/{id}/flash-sale")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getFlashSaleStatus(@PathVariable Long id) {
+        return ResponseEntity.ok(flashSaleService.status(id));
+    }
+
+    @DeleteMapping("/products/{id}/flash-sale")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> stopFlashSale(@PathVariable Long id) {
+        log.info("관리자: 플래시 세일 종료 요청: id={}", id);
+        try {
+            flashSaleService.deactivate(id);
+            return ResponseEntity.ok(flashSaleService.status(id));
+        } catch (IllegalArgumentException e) {
+            log.warn("관리자: 플래시 세일 종료 실패: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping(value = "/products", consumes = {"multipart/form-data"})
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> addProduct(
@@ -75,7 +126,8 @@ public class AdminProductController {
             @RequestParam("price") Integer price,
             @RequestParam(value = "discountPrice", required = false) Integer discountPrice,
             @RequestParam(value = "discountPercent", required = false) Integer discountPercent,
-            @RequestParam(value = "image", required = true) MultipartFile image, // 이미지를 필수로 변경
+            @RequestParam(value = "image", required = false) MultipartFile image,
+            @RequestParam(value = "imageUrl", required = false) String uploadedImageUrl, // 바로 올리기 완료 URL
             @RequestParam("description") String description,
             @RequestParam("discounted") boolean isDiscounted,
             @RequestParam("stock") Integer stock,
@@ -111,30 +163,30 @@ public class AdminProductController {
             log.warn("재고가 잘못됨: stock={}", stock);
             return ResponseEntity.badRequest().body(Map.of("error", "재고는 0 이상이어야 합니다."));
         }
-        if (image == null || image.isEmpty()) {
+        boolean hasUploadedImage = (image == null || image.isEmpty()) && s3Service.productKeyOf(uploadedImageUrl) != null;
+        if ((image == null || image.isEmpty()) && !hasUploadedImage) {
             log.warn("이미지가 누락됨");
             return ResponseEntity.badRequest().body(Map.of("error", "이미지는 필수 입력 항목입니다."));
         }
 
-        // 이미지 업로드 처리
+        // 이미지 업로드 처리 (바로 올리기로 이미 올라온 사진이면 URL만 사용)
         String imageUrl;
-        if (image.getSize() > 5 * 1024 * 1024) {
-            log.warn("파일 크기 초과: size={}", image.getSize());
-            return ResponseEntity.badRequest().body(Map.of("error", "파일 크기는 5MB를 초과할 수 없습니다."));
-        }
+        if (hasUploadedImage) {
+            imageUrl = uploadedImageUrl;
+        } else {
+            if (image.getSize() > 5 * 1024 * 1024) {
+                log.warn("파일 크기 초과: size={}", image.getSize());
+                return ResponseEntity.badRequest().body(Map.of("error", "파일 크기는 5MB를 초과할 수 없습니다."));
+            }
 
-        String contentType = image.getContentType();
-        if (contentType == null || !contentType.startsWith("image/")) {
-            log.warn("이미지 파일이 아님: contentType={}", contentType);
-            return ResponseEntity.badRequest().body(Map.of("error", "이미지 파일만 업로드 가능합니다."));
-        }
+            String contentType = image.getContentType();
+            if (contentType == null || !contentType.startsWith("image/")) {
+                log.warn("이미지 파일이 아님: contentType={}", contentType);
+                return ResponseEntity.badRequest().body(Map.of("error", "이미지 파일만 업로드 가능합니다."));
+            }
 
-        String fileName = UUID.randomUUID().toString() + "_" + image.getOriginalFilename();
-        String key = "products/" + fileName;
-        File tempFile = File.createTempFile("product", fileName);
-        image.transferTo(tempFile);
-        imageUrl = s3Service.uploadProductPhoto(key, tempFile);
-        tempFile.delete();
+            imageUrl = s3Service.uploadProductPhoto(image);
+        }
 
         // 할인 정보 처리
         Integer originalPrice = null;
@@ -233,16 +285,11 @@ public class AdminProductController {
                 return ResponseEntity.badRequest().body(Map.of("error", "이미지 파일만 업로드 가능합니다."));
             }
 
-            String fileName = UUID.randomUUID().toString() + "_" + image.getOriginalFilename();
-            String key = "products/" + id + "/" + fileName;
-            File tempFile = File.createTempFile("product", fileName);
-            image.transferTo(tempFile);
-            imageUrl = s3Service.uploadProductPhoto(key, tempFile);
-            tempFile.delete();
+            imageUrl = s3Service.uploadProductPhoto(image);
 
             Product existingProduct = productService.getProductById(id);
             if (existingProduct != null && existingProduct.getImageUrl() != null) {
-                String existingKey = extractKeyFromUrl(existingProduct.getImageUrl(), "teamace-product-photos");
+                String existingKey = s3Service.productKeyOf(existingProduct.getImageUrl());
                 if (existingKey != null) {
                     s3Service.deleteProductPhoto(existingKey);
                 }
@@ -299,7 +346,7 @@ public class AdminProductController {
         }
 
         if (product.getImageUrl() != null) {
-            String key = extractKeyFromUrl(product.getImageUrl(), "teamace-product-photos");
+            String key = s3Service.productKeyOf(product.getImageUrl());
             if (key != null) {
                 s3Service.deleteProductPhoto(key);
             }
@@ -310,6 +357,56 @@ public class AdminProductController {
         return ResponseEntity.noContent().build();
     }
 
+    // 상품 사진 바로 올리기 URL 발급. 이미지 바이트는 서버를 거치지 않고 브라우저에서 S3로 바로 간다
+    @PostMapping("/uploads/presign")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> presignUpload(
+            @RequestBody PresignRequest request,
+            @AuthenticationPrincipal String adminId) {
+        if (adminId == null) {
+            log.warn("인증되지 않은 사용자가 업로드 URL 발급 시도");
+            return ResponseEntity.status(401).build();
+        }
+        try {
+            PresignedUploadResponse response = s3Service.presignProductPhoto(request.contentType(), request.size(), request.sha256());
+            log.info("관리자: 업로드 URL 발급: key={}, alreadyUploaded={}", response.getKey(), response.isAlreadyUploaded());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            log.warn("관리자: 업로드 URL 발급 실패: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 바로 올리기 완료. productId가 있으면 그 상품의 사진을 교체하고, 없으면 상품 등록에 쓸 URL만 돌려준다
+    @PostMapping("/uploads/complete")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> completeUpload(
+            @RequestBody CompleteRequest request,
+            @AuthenticationPrincipal String adminId) throws IOException {
+        if (adminId == null) {
+            log.warn("인증되지 않은 사용자가 업로드 완료 시도");
+            return ResponseEntity.status(401).build();
+        }
+        try {
+            // 없는 상품이면 참조를 더하기 전에 거절
+            Product existingProduct = request.productId() != null ? productService.getProductById(request.productId()) : null;
+            String imageUrl = s3Service.completeProductPhoto(request.key());
+            if (existingProduct == null) {
+                return ResponseEntity.ok(Map.of("url", imageUrl));
+            }
+            String existingKey = s3Service.productKeyOf(existingProduct.getImageUrl());
+            Product updated = productService.updateProductImage(existingProduct.getId(), imageUrl);
+            if (existingKey != null) {
+                s3Service.deleteProductPhoto(existingKey);
+            }
+            log.info("관리자: 상품 사진 교체 성공: id={}", updated.getId());
+            return ResponseEntity.ok(updated);
+        } catch (IllegalArgumentException e) {
+            log.warn("관리자: 업로드 완료 실패: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping("/uploads")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, String>> uploadFile(
@@ -345,12 +442,7 @@ public class AdminProductController {
                 throw new IllegalArgumentException("파일 크기는 5MB를 초과할 수 없습니다.");
             }
 
-            String fileName = UUID.randomUUID().toString() + "_" + originalFileName;
-            String key = "products/" + fileName;
-            File tempFile = File.createTempFile("upload", fileName);
-            file.transferTo(tempFile);
-            String fileUrl = s3Service.uploadProductPhoto(key, tempFile);
-            tempFile.delete();
+            String fileUrl = s3Service.uploadProductPhoto(file);
 
             Map<String, String> response = new HashMap<>();
             response.put("url", fileUrl);
@@ -371,11 +463,6 @@ public class AdminProductController {
         }
     }
 
-    private String extractKeyFromUrl(String imageUrl, String bucketName) {
-        String prefix = "https://s3.ap-northeast-2.amazonaws.com/" + bucketName + "/";
-        if (imageUrl != null && imageUrl.startsWith(prefix)) {
-            return imageUrl.substring(prefix.length());
-        }
-        return null;
-    }
+    record PresignRequest(String contentType, Long size, String sha256) {}
+    record CompleteRequest(String key, Long productId) {}
 }
\ No newline at end of file
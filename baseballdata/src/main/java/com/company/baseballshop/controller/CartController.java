@@ -1,7 +1,9 @@
 package com.company.baseballshop.controller;
 
 import com.company.baseballshop.dto.AddCartItemRequest;
+import com.company.baseballshop.dto.CartBatchRequest;
 import com.company.baseballshop.dto.CartItemDTO;
+import com.company.baseballshop.dto.CartSummary;
 import com.company.baseballshop.dto.UpdateCartItemRequest;
 import com.company.baseballshop.service.CartService;
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +12,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @RestController
@@ -35,6 +38,23 @@ public class CartController {
         return ResponseEntity.ok("장바구니에 상품이 추가되었습니다.");
     }
 
+    // 여러 상품을 한 번에 추가/수정/삭제 (장바구니 복원, 다시 구매하기)
+    @PostMapping("/batch")
+    public ResponseEntity<?> applyBatch(@RequestBody CartBatchRequest request) {
+        String email = getCurrentUserEmail();
+        if (email == null) {
+            log.warn("인증되지 않은 사용자가 장바구니 일괄 변경 요청");
+            return ResponseEntity.status(401).body("로그인이 필요합니다.");
+        }
+        log.info("장바구니 일괄 변경 요청: email={}, lines={}", email, request.getItems() != null ? request.getItems().size() : 0);
+        try {
+            return ResponseEntity.ok(cartService.applyBatch(email, request));
+        } catch (IllegalArgumentException e) {
+            log.warn("장바구니 일괄 변경 실패: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping
     public ResponseEntity<List<CartItemDTO>> getCartItems() {
         String email = getCurrentUserEmail();
@@ -47,6 +67,17 @@ public class CartController {
         return ResponseEntity.ok(cartItems);
     }
 
+    // 장바구니 항목 + 수량/합계 요약 (헤더 배지에서도 사용)
+    @GetMapping("/summary")
+    public ResponseEntity<CartSummary> getCartSummary() {
+        String email = getCurrentUserEmail();
+        if (email == null) {
+            log.warn("인증되지 않은 사용자가 장바구니 요약 조회 요청");
+            return ResponseEntity.status(401).build();
+        }
+        return ResponseEntity.ok(cartService.getCartSummary(email));
+    }
+
     @PutMapping("/update/{id}")
     public ResponseEntity<String> updateCartItem(@PathVariable Long id, @RequestBody UpdateCartItemRequest request) {
         String email = getCurrentUserEmail();
@@ -55,7 +86,7 @@ public class CartController {
             return ResponseEntity.status(401).body("로그인이 필요합니다.");
         }
         log.info("장바구니 수정 요청: email={}, cartItemId={}", email, id);
-        cartService.updateCartItem(id, request);
+        cartService.updateCartItem(email, id, request);
         return ResponseEntity.ok("장바구니 항목이 수정되었습니다.");
     }
 
@@ -67,7 +98,7 @@ public class CartController {
             return ResponseEntity.status(401).body("로그인이 필요합니다.");
         }
         log.info("장바구니 삭제 요청: email={}, cartItemId={}", email, id);
-        cartService.removeCartItem(id);
+        cartService.removeCartItem(email, id);
         return ResponseEntity.ok("장바구니 항목이 삭제되었습니다.");
     }
 
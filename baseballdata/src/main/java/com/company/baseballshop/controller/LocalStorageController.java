@@ -0,0 +1,48 @@
+package com.company.baseballshop.controller;
+
+import com.company.baseballshop.storage.LocalObjectStore;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// 로컬 저장소(storage.type=local)용 서명 URL 업로드 수신. S3 서명 URL로 PUT 하는 흐름을 오프라인에서 확인할 때 쓴다
+@Slf4j
+@ConditionalOnProperty(name = "storage.type", havingValue = "local")
+@RestController
+@RequestMapping(LocalObjectStore.LOCAL_UPLOAD_PATH)
+@RequiredArgsConstructor
+public class LocalStorageController {
+
+    private final LocalObjectStore localObjectStore;
+
+    @PutMapping("/{bucket}/**")
+    public ResponseEntity<Void> put(
+            @PathVariable String bucket,
+            @RequestParam("expires") long expires,
+            @RequestParam("signature") String signature,
+            @RequestHeader(value = "Content-Type", required = false) String contentType,
+            HttpServletRequest request) throws IOException {
+        String prefix = request.getContextPath() + LocalObjectStore.LOCAL_UPLOAD_PATH + bucket + "/";
+        String key = request.getRequestURI().substring(prefix.length());
+        long contentLength = request.getContentLengthLong();
+        if (!localObjectStore.verifyUpload(bucket, key, contentType, contentLength, expires, signature)) {
+            log.warn("로컬 업로드 서명 불일치: bucket={}, key={}", bucket, key);
+            return ResponseEntity.status(403).build();
+        }
+        try (InputStream in = request.getInputStream()) {
+            localObjectStore.put(bucket, key, in, contentLength, contentType, null).join();
+        }
+        return ResponseEntity.ok().build();
+    }
+}
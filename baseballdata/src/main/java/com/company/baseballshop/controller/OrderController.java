@@ -1,6 +1,7 @@
 package com.company.baseballshop.controller;
 
 import com.company.baseballshop.dto.OrderDTO;
+import com.company.baseballshop.dto.OrderPageResponse;
 import com.company.baseballshop.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -9,8 +10,11 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
@@ -18,10 +22,27 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    // 내 주문 내역 (최신순, 커서 기반)
+    @GetMapping("/me")
+    public ResponseEntity<?> getMyOrders(
+            @AuthenticationPrincipal String email,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        if (email == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "로그인이 필요합니다."));
+        }
+        try {
+            OrderPageResponse page = orderService.getMyOrders(email, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
         String username = userDetails.getUsername();
         OrderDTO order = orderService.getOrderById(id, username);
         return ResponseEntity.ok(order);
     }
-}
\ No newline at end of file
+}
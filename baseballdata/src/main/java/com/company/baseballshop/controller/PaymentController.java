@@ -1,15 +1,18 @@
 package com.company.baseballshop.controller;
 
+import com.company.baseballshop.dto.CheckoutRequest;
 import com.company.baseballshop.dto.PaymentRequest;
 
 import com.company.baseballshop.dto.PaymentResponse;
 
 import com.company.baseballshop.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -21,18 +24,49 @@ public class PaymentController {
     @PostMapping("/portone")
     public ResponseEntity<PaymentResponse> initiatePayment(
             @RequestBody PaymentRequest requestDTO,
-            @AuthenticationPrincipal String email
+            @AuthenticationPrincipal String email,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
     ) {
-        PaymentResponse response = paymentService.initiatePayment(requestDTO, email);
+        PaymentResponse response = paymentService.initiatePayment(requestDTO, email, idempotencyKey);
         return ResponseEntity.ok(response);
     }
 
+    // 장바구니 결제: 서버가 cart_items에서 주문을 만들고 금액을 계산한다
+    @PostMapping("/checkout")
+    public ResponseEntity<PaymentResponse> checkout(
+            @RequestBody CheckoutRequest request,
+            @AuthenticationPrincipal String email,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
+        if (email == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(paymentService.checkout(request, email, idempotencyKey));
+    }
+
+    @PostMapping("/portone/register")
+    public ResponseEntity<String> registerPaymentKey(
+            @RequestParam(name = "paymentKey") String paymentKey,
+            @RequestParam(name = "orderId") Long orderId,
+            @AuthenticationPrincipal String email
+    ) {
+        if (!paymentService.registerPaymentKey(orderId, paymentKey, email)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Pending order not found: " + orderId);
+        }
+        return ResponseEntity.ok("Payment key registered");
+    }
+
     @PostMapping("/portone/verify")
-    public ResponseEntity<String> verifyPayment(
+    public Mono<ResponseEntity<String>> verifyPayment(
             @RequestParam(name = "paymentKey") String paymentKey,
-            @RequestParam(name="orderId") Long orderId
+            @RequestParam(name="orderId") Long orderId,
+            @AuthenticationPrincipal String email
     ) {
-        paymentService.verifyPayment(paymentKey, orderId);
-        return ResponseEntity.ok("Payment verified successfully");
+        if (email == null) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        // 포트원 응답을 기다리는 동안 요청 스레드를 점유하지 않도록 Mono로 반환
+        return paymentService.verifyPayment(paymentKey, orderId, email)
+                .thenReturn(ResponseEntity.ok("Payment verified successfully"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.company.baseballshop.controller;
+
+import com.company.baseballshop.model.Order;
+import com.company.baseballshop.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 로컬 개발용 포트원 결제 조회 스텁 (dev/test 프로필 전용)
+// portone.base-url을 http://localhost:8092/stub/portone 으로 두면 실제 PG 없이 결제 검증을 확인할 수 있다
+@Slf4j
+@Profile({"dev", "test"})
+@RestController
+@RequestMapping("/stub/portone")
+@RequiredArgsConstructor
+public class PortOneStubController {
+
+    // 프론트엔드가 만드는 paymentId 형식: payment-{orderId}-{timestamp}
+    private static final Pattern PAYMENT_ID = Pattern.compile("^payment-(\\d+)-\\d+$");
+
+    private final OrderRepository orderRepository;
+
+    @Value("${portone.stub.latency-ms:100}")
+    private long latencyMs;
+
+    @Value("${portone.stub.latency-jitter-ms:0}")
+    private long latencyJitterMs;
+
+    @Value("${portone.stub.failure-rate:0.0}")
+    private double failureRate;
+
+    @Value("${portone.stub.status:PAID}")
+    private String defaultStatus;
+
+    @GetMapping("/payments/{paymentId}")
+    public Mono<ResponseEntity<Map<String, Object>>> getPayment(
+            @PathVariable String paymentId,
+            @RequestParam(value = "status", required = false) String status) {
+        long delay = latencyMs + (latencyJitterMs > 0 ? ThreadLocalRandom.current().nextLong(latencyJitterMs + 1) : 0);
+        return Mono.delay(Duration.ofMillis(delay))
+                .publishOn(Schedulers.boundedElastic())
+                .map(tick -> respond(paymentId, status != null ? status : defaultStatus));
+    }
+
+    private ResponseEntity<Map<String, Object>> respond(String paymentId, String status) {
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            log.info("포트원 스텁: 장애 주입 paymentId={}", paymentId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("type", "STUB_FAILURE"));
+        }
+        Matcher matcher = PAYMENT_ID.matcher(paymentId);
+        Order order = matcher.matches()
+                ? orderRepository.findById(Long.parseLong(matcher.group(1))).orElse(null)
+                : null;
+        if (order == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("type", "PAYMENT_NOT_FOUND"));
+        }
+        return ResponseEntity.ok(Map.of("payment", Map.of(
+                "id", paymentId,
+                "status", status,
+                "amount", Map.of("total", order.getAmount()))));
+    }
+}
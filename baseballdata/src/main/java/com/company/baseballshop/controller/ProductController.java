@@ -1,7 +1,14 @@
 package com.company.baseballshop.controller;
 
+import com.company.baseballshop.dto.ProductFacets;
+import com.company.baseballshop.dto.ProductPageResponse;
+import com.company.baseballshop.dto.ProductSearchResponse;
+import com.company.baseballshop.dto.ProductSummary;
+import com.company.baseballshop.dto.ReviewPageResponse;
 import com.company.baseballshop.model.Product;
+import com.company.baseballshop.search.Suggestion;
 import com.company.baseballshop.service.ProductService;
+import com.company.baseballshop.service.ReviewService;
 import com.company.baseballshop.service.S3Service;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -11,13 +18,11 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -27,25 +32,73 @@ public class ProductController {
 
     private final ProductService productService;
     private final S3Service s3Service;
+    private final ReviewService reviewService;
 
-    public ProductController(ProductService productService, S3Service s3Service) {
+    public ProductController(ProductService productService, S3Service s3Service, ReviewService reviewService) {
         this.productService = productService;
         this.s3Service = s3Service;
+        this.reviewService = reviewService;
     }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
+    public ResponseEntity<List<ProductSummary>> getAllProducts() {
         log.info("모든 상품 조회 요청");
-        List<Product> products = productService.getAllProducts();
+        List<ProductSummary> products = productService.getAllProducts();
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<?> getProductPage(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) Boolean discounted,
+            @RequestParam(required = false) Integer minPrice,
+            @RequestParam(required = false) Integer maxPrice,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("상품 페이지 조회 요청: category={}, brand={}, sort={}, size={}", category, brand, sort, size);
+        try {
+            ProductPageResponse page = productService.getProductPage(
+                    category, brand, discounted, minPrice, maxPrice, sort, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            log.warn("상품 페이지 조회 실패: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) Integer size) {
+        log.info("상품 검색 요청: q={}, category={}, brand={}", query, category, brand);
+        try {
+            ProductSearchResponse response = productService.searchProducts(query, category, brand, size);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            log.warn("상품 검색 실패: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 키 입력마다 호출되므로 로그는 debug 레벨로 남긴다
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer size) {
+        log.debug("자동완성 요청: q={}", query);
+        return ResponseEntity.ok(productService.suggest(query, size));
+    }
+
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(
+    public ResponseEntity<List<ProductSummary>> getProductsByCategory(
             @PathVariable String category,
             @RequestParam(required = false) String brand) {
         log.info("카테고리별 상품 조회 요청: category={}, brand={}", category, brand);
-        List<Product> products;
+        List<ProductSummary> products;
         if (brand != null && !brand.isEmpty()) {
             products = productService.getProductsByCategoryAndBrand(category, brand);
         } else {
@@ -55,33 +108,47 @@ public class ProductController {
     }
 
     @GetMapping("/discounted-products")
-    public ResponseEntity<List<Product>> getDiscountedProducts() {
+    public ResponseEntity<List<ProductSummary>> getDiscountedProducts() {
         log.info("할인 상품 조회 요청");
-        List<Product> discountedProducts = productService.getDiscountedProducts();
+        List<ProductSummary> discountedProducts = productService.getDiscountedProducts();
         return ResponseEntity.ok(discountedProducts != null ? discountedProducts : Collections.emptyList());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
         log.info("상품 상세 조회 요청: {}", id);
-        Product product = productService.getProductById(id);
+        Product product = productService.getProductDetail(id);
         return product != null
                 ? ResponseEntity.ok(product)
                 : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
     }
 
+    @GetMapping("/{id}/reviews")
+    public ResponseEntity<?> getProductReviews(
+            @PathVariable Long id,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("상품 리뷰 조회 요청: productId={}, sort={}, size={}", id, sort, size);
+        try {
+            ReviewPageResponse page = reviewService.getProductReviews(id, sort, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            log.warn("상품 리뷰 조회 실패: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/brands/{category}")
     public ResponseEntity<List<Map<String, Object>>> getBrandsByCategory(@PathVariable String category) {
         log.info("카테고리별 브랜드 조회 요청: category={}", category);
         try {
-            List<Product> products = productService.getProductsByCategory(category);
-            List<Map<String, Object>> brandCounts = products.stream()
-                    .collect(Collectors.groupingBy(Product::getBrand, Collectors.counting()))
-                    .entrySet().stream()
-                    .map(entry -> {
+            // 스냅샷에 미리 집계된 브랜드 패싯 사용
+            List<Map<String, Object>> brandCounts = productService.getFacets(category).getBrands().stream()
+                    .map(brandCount -> {
                         Map<String, Object> map = new HashMap<>();
-                        map.put("brand", entry.getKey());
-                        map.put("count", entry.getValue());
+                        map.put("brand", brandCount.getBrand());
+                        map.put("count", brandCount.getCount());
                         return map;
                     })
                     .collect(Collectors.toList());
@@ -92,6 +159,13 @@ public class ProductController {
         }
     }
 
+    // 카테고리 페이지 필터용 패싯 (브랜드별 개수, 할인 상품 수, 가격대별 개수)
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacets> getFacets(@RequestParam(required = false) String category) {
+        log.info("상품 패싯 조회 요청: category={}", category);
+        return ResponseEntity.ok(productService.getFacets(category));
+    }
+
     @GetMapping("/brands")
     public ResponseEntity<List<String>> getAllBrands() {
         log.info("모든 브랜드 조회 요청");
@@ -133,12 +207,7 @@ public class ProductController {
 
         String imageUrl = null;
         if (image != null && !image.isEmpty()) {
-            String fileName = UUID.randomUUID().toString() + "_" + image.getOriginalFilename();
-            String key = "products/" + fileName;
-            File tempFile = File.createTempFile("product", fileName);
-            image.transferTo(tempFile);
-            imageUrl = s3Service.uploadProductPhoto(key, tempFile);
-            tempFile.delete();
+            imageUrl = s3Service.uploadProductPhoto(image);
         }
 
         Product product = productService.createProduct(
@@ -177,17 +246,12 @@ public class ProductController {
 
         String imageUrl = null;
         if (image != null && !image.isEmpty()) {
-            String fileName = UUID.randomUUID().toString() + "_" + image.getOriginalFilename();
-            String key = "products/" + id + "/" + fileName;
-            File tempFile = File.createTempFile("product", fileName);
-            image.transferTo(tempFile);
-            imageUrl = s3Service.uploadProductPhoto(key, tempFile);
-            tempFile.delete();
+            imageUrl = s3Service.uploadProductPhoto(image);
 
             // 기존 이미지 삭제
             Product existingProduct = productService.getProductById(id);
             if (existingProduct != null && existingProduct.getImageUrl() != null) {
-                String existingKey = extractKeyFromUrl(existingProduct.getImageUrl(), "teamace-product-photos");
+                String existingKey = s3Service.productKeyOf(existingProduct.getImageUrl());
                 if (existingKey != null) {
                     s3Service.deleteProductPhoto(existingKey);
                 }
@@ -217,7 +281,7 @@ public class ProductController {
         }
 
         if (product.getImageUrl() != null) {
-            String key = extractKeyFromUrl(product.getImageUrl(), "teamace-product-photos");
+            String key = s3Service.productKeyOf(product.getImageUrl());
             if (key != null) {
                 s3Service.deleteProductPhoto(key);
             }
@@ -227,13 +291,4 @@ public class ProductController {
         log.info("상품 삭제 성공: id={}", id);
         return ResponseEntity.ok().build();
     }
-
-    // S3 URL에서 키 추출하는 유틸리티 메서드
-    private String extractKeyFromUrl(String imageUrl, String bucketName) {
-        String prefix = "https://s3.ap-northeast-1.amazonaws.com/" + bucketName + "/";
-        if (imageUrl != null && imageUrl.startsWith(prefix)) {
-            return imageUrl.substring(prefix.length());
-        }
-        return null;
-    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.company.baseballshop.controller;
 
+import com.company.baseballshop.dto.PresignedUploadResponse;
 import com.company.baseballshop.model.Review;
 import com.company.baseballshop.model.ReviewComment;
 import com.company.baseballshop.service.ReviewService;
@@ -12,9 +13,9 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Slf4j
@@ -69,7 +70,8 @@ public class ReviewController {
             return ResponseEntity.status(401).build();
         }
 
-        if (content == null || content.trim().isEmpty() || productId == null || rating == null) {
+        if (content == null || content.trim().isEmpty() || productId == null || rating == null
+                || rating < 1 || rating > 5) {
             log.warn("필수 필드가 누락됨: content={}, productId={}, rating={}", content, productId, rating);
             return ResponseEntity.badRequest().build();
         }
@@ -78,10 +80,7 @@ public class ReviewController {
         if (image != null && !image.isEmpty()) {
             String fileName = UUID.randomUUID().toString() + "_" + image.getOriginalFilename();
             String key = customerId + "/reviews/" + productId + "/" + fileName;
-            File tempFile = File.createTempFile("review", fileName);
-            image.transferTo(tempFile);
-            imageUrl = s3Service.uploadCustomerPhoto(key, tempFile);
-            tempFile.delete();
+            imageUrl = s3Service.uploadCustomerPhoto(key, image);
         }
 
         Review review = reviewService.createReview(customerId, content, productId, imageUrl, rating);
@@ -105,15 +104,12 @@ public class ReviewController {
         if (image != null && !image.isEmpty()) {
             String fileName = UUID.randomUUID().toString() + "_" + image.getOriginalFilename();
             String key = customerId + "/reviews/" + id + "/" + fileName;
-            File tempFile = File.createTempFile("review", fileName);
-            image.transferTo(tempFile);
-            imageUrl = s3Service.uploadCustomerPhoto(key, tempFile);
-            tempFile.delete();
+            imageUrl = s3Service.uploadCustomerPhoto(key, image);
 
             // 기존 이미지 삭제 (필요 시)
             Review existingReview = reviewService.getReviewById(id);
             if (existingReview.getImageUrl() != null) {
-                String existingKey = extractKeyFromUrl(existingReview.getImageUrl(), "teamace-customer-photos");
+                String existingKey = s3Service.customerKeyOf(existingReview.getImageUrl());
                 if (existingKey != null) {
                     s3Service.deleteCustomerPhoto(existingKey);
                 }
@@ -143,7 +139,7 @@ public class ReviewController {
             // 리뷰 조회 및 이미지 삭제
             Review review = reviewService.getReviewById(id);
             if (review.getImageUrl() != null) {
-                String key = extractKeyFromUrl(review.getImageUrl(), "teamace-customer-photos");
+                String key = s3Service.customerKeyOf(review.getImageUrl());
                 if (key != null) {
                     s3Service.deleteCustomerPhoto(key);
                 }
@@ -175,10 +171,7 @@ public class ReviewController {
 
         String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
         String key = customerId + "/reviews/" + reviewId + "/" + fileName;
-        File tempFile = File.createTempFile("review", fileName);
-        file.transferTo(tempFile);
-        String photoUrl = s3Service.uploadCustomerPhoto(key, tempFile);
-        tempFile.delete();
+        String photoUrl = s3Service.uploadCustomerPhoto(key, file);
 
         // 리뷰에 사진 URL 업데이트
         reviewService.updateReviewPhoto(reviewId, customerId, photoUrl);
@@ -186,6 +179,65 @@ public class ReviewController {
         return ResponseEntity.ok(photoUrl);
     }
 
+    // 리뷰 사진 바로 올리기 URL 발급. 작성자만 받을 수 있고 키는 작성자/리뷰 경로 아래로 고정된다
+    @PostMapping("/{reviewId}/photo/presign")
+    public ResponseEntity<?> presignReviewPhoto(
+            @PathVariable Long reviewId,
+            @RequestBody PresignRequest request,
+            @AuthenticationPrincipal String customerId) {
+        if (customerId == null) {
+            log.warn("인증되지 않은 사용자가 리뷰 사진 업로드 URL 발급 시도: reviewId={}", reviewId);
+            return ResponseEntity.status(401).build();
+        }
+        try {
+            Review review = reviewService.getReviewById(reviewId);
+            if (!customerId.equals(review.getNickname())) {
+                log.warn("리뷰 작성자가 아닌 사용자의 업로드 URL 발급 시도: reviewId={}, customerId={}", reviewId, customerId);
+                return ResponseEntity.status(403).build();
+            }
+            PresignedUploadResponse response = s3Service.presignCustomerPhoto(
+                    reviewPhotoPrefix(customerId, reviewId), request.contentType(), request.size());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            log.warn("리뷰 사진 업로드 URL 발급 실패: reviewId={}, error={}", reviewId, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 바로 올리기 완료. 객체를 확인한 뒤 리뷰에 연결하고 이전 사진을 지운다
+    @PostMapping("/{reviewId}/photo/complete")
+    public ResponseEntity<?> completeReviewPhoto(
+            @PathVariable Long reviewId,
+            @RequestBody CompleteRequest request,
+            @AuthenticationPrincipal String customerId) throws IOException {
+        if (customerId == null) {
+            log.warn("인증되지 않은 사용자가 리뷰 사진 업로드 완료 시도: reviewId={}", reviewId);
+            return ResponseEntity.status(401).build();
+        }
+        String key = request.key();
+        if (key == null || !key.startsWith(reviewPhotoPrefix(customerId, reviewId)) || key.contains("..")) {
+            log.warn("잘못된 리뷰 사진 키: reviewId={}, customerId={}, key={}", reviewId, customerId, key);
+            return ResponseEntity.status(403).build();
+        }
+        try {
+            Review review = reviewService.getReviewById(reviewId);
+            String existingKey = s3Service.customerKeyOf(review.getImageUrl());
+            String photoUrl = s3Service.completeCustomerPhoto(key);
+            reviewService.updateReviewPhoto(reviewId, customerId, photoUrl);
+            if (existingKey != null && !existingKey.equals(key)) {
+                s3Service.deleteCustomerPhoto(existingKey);
+            }
+            return ResponseEntity.ok(Map.of("url", photoUrl));
+        } catch (IllegalArgumentException e) {
+            log.warn("리뷰 사진 업로드 완료 실패: reviewId={}, error={}", reviewId, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private String reviewPhotoPrefix(String customerId, Long reviewId) {
+        return customerId + "/reviews/" + reviewId + "/";
+    }
+
     @DeleteMapping("/{reviewId}/photo")
     public ResponseEntity<Void> deleteReviewPhoto(
             @PathVariable Long reviewId,
@@ -221,14 +273,8 @@ public class ReviewController {
         return ResponseEntity.status(201).body(comment);
     }
 
-    private String extractKeyFromUrl(String imageUrl, String bucketName) {
-        String prefix = "https://s3.ap-northeast-1.amazonaws.com/" + bucketName + "/";
-        if (imageUrl != null && imageUrl.startsWith(prefix)) {
-            return imageUrl.substring(prefix.length());
-        }
-        return null;
-    }
-
     record DeleteRequest(String nickname, Boolean isAdmin) {}
     record CommentRequest(String content) {}
+    record PresignRequest(String contentType, Long size) {}
+    record CompleteRequest(String key) {}
 }
\ No newline at end of file
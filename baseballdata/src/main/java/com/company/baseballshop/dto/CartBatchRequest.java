@@ -0,0 +1,27 @@
+package com.company.baseballshop.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// 장바구니 일괄 변경 (장바구니 복원, 다시 구매하기 등)
+@Getter
+@Setter
+public class CartBatchRequest {
+    private List<Line> items;
+
+    @Getter
+    @Setter
+    public static class Line {
+        private Long productId;
+        private Integer quantity;
+        private Action action = Action.ADD;
+    }
+
+    public enum Action {
+        ADD,    // 수량 더하기 (없으면 추가)
+        SET,    // 수량 지정 (0 이하면 삭제)
+        REMOVE  // 삭제
+    }
+}
@@ -12,6 +12,13 @@ public class CartItemDTO {
     private String image;
     private Integer quantity;
 
+    // 장바구니 조회 시 함께 내려주는 상품 정보
+    private Integer originalPrice;   // 할인 전 가격 (할인 상품이 아니면 null)
+    private Integer discountPercent;
+    private Boolean discounted;
+    private Boolean inStock;         // 현재 재고로 담은 수량을 살 수 있는지
+    private Integer lineTotal;       // price * quantity
+
     public CartItemDTO() {
         this.id = id;
         this.productId = productId;
@@ -20,4 +27,20 @@ public class CartItemDTO {
         this.image = image;
         this.quantity = quantity;
     }
+
+    // CartItemRepository JPQL 생성자 표현식용
+    public CartItemDTO(Long id, Long productId, String name, Integer price, Integer originalPrice, Integer discountPercent,
+                       Boolean discounted, String image, Integer quantity, Integer stock) {
+        this.id = id;
+        this.productId = productId;
+        this.name = name;
+        this.price = price;
+        this.originalPrice = originalPrice;
+        this.discountPercent = discountPercent;
+        this.discounted = discounted;
+        this.image = image;
+        this.quantity = quantity;
+        this.inStock = stock != null && quantity != null && stock >= quantity;
+        this.lineTotal = price != null && quantity != null ? price * quantity : 0;
+    }
 }
@@ -0,0 +1,23 @@
+package com.company.baseballshop.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// 장바구니 화면/배지용 요약. 합계는 서버에서 현재 가격 기준으로 계산
+@Getter
+public class CartSummary {
+    private final List<CartItemDTO> items;
+    private final int lineCount;
+    private final int itemCount;
+    private final int subtotal;
+    private final boolean allInStock;
+
+    public CartSummary(List<CartItemDTO> items) {
+        this.items = items;
+        this.lineCount = items.size();
+        this.itemCount = items.stream().mapToInt(item -> item.getQuantity() != null ? item.getQuantity() : 0).sum();
+        this.subtotal = items.stream().mapToInt(item -> item.getLineTotal() != null ? item.getLineTotal() : 0).sum();
+        this.allInStock = items.stream().allMatch(item -> Boolean.TRUE.equals(item.getInStock()));
+    }
+}
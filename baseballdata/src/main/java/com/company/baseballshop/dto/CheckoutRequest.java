@@ -0,0 +1,13 @@
+package com.company.baseballshop.dto;
+
+import lombok.Data;
+
+// 장바구니 결제 요청. 상품/수량/금액은 서버가 cart_items에서 직접 계산하므로 배송·결제 정보만 받는다
+@Data
+public class CheckoutRequest {
+    private String orderName;       // 비우면 "첫 상품명 외 N건"
+    private String customerName;
+    private String customerPhone;
+    private String customerAddress;
+    private String paymentMethod;
+}
@@ -0,0 +1,46 @@
+package com.company.baseballshop.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// 주문 내역 목록용 요약. 주문 컬럼은 JPQL 생성자 표현식으로, 항목 집계는 페이지 단위 IN 조회로 채운다
+@Getter
+public class OrderSummary {
+    // 목록 카드에 보여줄 썸네일 최대 개수
+    public static final int MAX_THUMBNAILS = 3;
+
+    private final Long id;
+    private final String orderName;
+    private final Integer amount;
+    private final String status;
+    private final LocalDateTime createdAt;
+
+    private int lineCount;            // 주문 항목(상품) 수
+    private int itemCount;            // 총 수량
+    private int itemsTotal;           // 구매 당시 가격 기준 합계
+    private String firstItemName;
+    private final List<String> thumbnails = new ArrayList<>();
+
+    public OrderSummary(Long id, String orderName, Integer amount, String status, LocalDateTime createdAt) {
+        this.id = id;
+        this.orderName = orderName;
+        this.amount = amount;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+
+    public void addLine(String productName, String image, int quantity, int priceAtPurchase) {
+        if (lineCount == 0) {
+            firstItemName = productName;
+        }
+        lineCount++;
+        itemCount += quantity;
+        itemsTotal += quantity * priceAtPurchase;
+        if (image != null && thumbnails.size() < MAX_THUMBNAILS) {
+            thumbnails.add(image);
+        }
+    }
+}
@@ -7,6 +7,8 @@ public class PaymentResponse {
     private String paymentKey;
     private String orderId;
     private String redirectUrl;
+    private Integer amount;     // 서버에서 계산한 결제 금액 (장바구니 결제)
+    private String orderName;
     // 매개변수를 받는 생성자 추가
     public PaymentResponse() {
         this.paymentKey = paymentKey;
@@ -0,0 +1,13 @@
+package com.company.baseballshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 포트원 결제 단건 조회 결과 중 검증에 필요한 값
+@Getter
+@AllArgsConstructor
+public class PortOnePayment {
+    private String paymentId;
+    private String status;
+    private Integer amount;
+}
@@ -0,0 +1,18 @@
+package com.company.baseballshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class PresignedUploadResponse {
+    private final String key;          // 업로드 완료 요청에 그대로 전달
+    private final String url;          // 완료 후 이미지 URL
+    private final String uploadUrl;    // 이 주소로 headers를 붙여 PUT (alreadyUploaded면 null)
+    private final Map<String, String> headers;
+    private final Instant expiresAt;
+    private final boolean alreadyUploaded; // 같은 내용이 이미 있어 PUT 없이 완료 요청만 하면 됨
+}
@@ -0,0 +1,78 @@
+package com.company.baseballshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 카테고리 페이지 필터용 집계 (브랜드별 개수, 할인 상품 수, 가격대별 개수)
+@Getter
+@AllArgsConstructor
+public class ProductFacets {
+
+    // 가격대 경계값 (마지막 구간은 상한 없음)
+    private static final int[] PRICE_BOUNDARIES = {0, 50000, 100000, 200000, 300000};
+
+    private final String category;
+    private final long total;
+    private final long discountedCount;
+    private final List<BrandCount> brands;
+    private final List<PriceBucket> priceBuckets;
+
+    @Getter
+    @AllArgsConstructor
+    public static class BrandCount {
+        private final String brand;
+        private final long count;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PriceBucket {
+        private final int min;
+        private final Integer max; // null이면 상한 없음
+        private final long count;
+    }
+
+    public static ProductFacets from(String category, Collection<ProductSummary> products) {
+        Map<String, Long> brandCounts = new HashMap<>();
+        long[] bucketCounts = new long[PRICE_BOUNDARIES.length];
+        long discounted = 0;
+
+        for (ProductSummary product : products) {
+            if (product.getBrand() != null) {
+                brandCounts.merge(product.getBrand(), 1L, Long::sum);
+            }
+            if (product.isDiscounted()) {
+                discounted++;
+            }
+            bucketCounts[bucketIndex(product.getPrice())]++;
+        }
+
+        List<BrandCount> brands = new ArrayList<>();
+        brandCounts.forEach((brand, count) -> brands.add(new BrandCount(brand, count)));
+        brands.sort(Comparator.comparingLong(BrandCount::getCount).reversed().thenComparing(BrandCount::getBrand));
+
+        List<PriceBucket> buckets = new ArrayList<>();
+        for (int i = 0; i < PRICE_BOUNDARIES.length; i++) {
+            Integer max = i + 1 < PRICE_BOUNDARIES.length ? PRICE_BOUNDARIES[i + 1] : null;
+            buckets.add(new PriceBucket(PRICE_BOUNDARIES[i], max, bucketCounts[i]));
+        }
+
+        return new ProductFacets(category, products.size(), discounted, List.copyOf(brands), List.copyOf(buckets));
+    }
+
+    private static int bucketIndex(int price) {
+        for (int i = PRICE_BOUNDARIES.length - 1; i > 0; i--) {
+            if (price >= PRICE_BOUNDARIES[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.company.baseballshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ProductSearchResponse {
+    private final String query;
+    private final int count;
+    private final List<ProductSummary> items; // 관련도 순
+}
@@ -0,0 +1,84 @@
+package com.company.baseballshop.dto;
+
+import com.company.baseballshop.model.ImageVariants;
+import com.company.baseballshop.model.Product;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.sql.Timestamp;
+
+// 목록 응답용 경량 상품 모델 (description, updatedAt 제외)
+@Getter
+public class ProductSummary {
+    private final Long id;
+    private final String name;
+    private final String brand;
+    private final String category;
+    private final int price;
+    private final Integer originalPrice;
+    private final Integer discountPercent;
+    private final boolean discounted;
+    private final boolean inStock;
+
+    @JsonIgnore
+    private final int stock; // 장바구니에서 담은 수량만큼 살 수 있는지 판단용 (응답에는 재고 여부만 포함)
+    private final String image;
+    private final int reviewCount;
+
+    @JsonIgnore
+    private final long ratingSum; // 평균 계산용 (응답에는 평균만 포함)
+
+    @JsonIgnore
+    private final Timestamp createdAt; // 키셋 커서 생성용 (응답에는 포함하지 않음)
+
+    public ProductSummary(Long id, String name, String brand, String category, Integer price,
+                          Integer originalPrice, Integer discountPercent, Boolean discounted,
+                          Integer stock, String image, Timestamp createdAt) {
+        this(id, name, brand, category, price, originalPrice, discountPercent, discounted, stock, image, createdAt,
+                null, null);
+    }
+
+    // JPQL 생성자 표현식(SELECT new ...)에서 사용. 평점 집계 행이 없으면 reviewCount/ratingSum이 null
+    public ProductSummary(Long id, String name, String brand, String category, Integer price,
+                          Integer originalPrice, Integer discountPercent, Boolean discounted,
+                          Integer stock, String image, Timestamp createdAt,
+                          Integer reviewCount, Long ratingSum) {
+        this.id = id;
+        this.name = name;
+        this.brand = brand;
+        this.category = category;
+        this.price = price != null ? price : 0;
+        this.originalPrice = originalPrice;
+        this.discountPercent = discountPercent;
+        this.discounted = Boolean.TRUE.equals(discounted);
+        this.stock = stock != null ? stock : 0;
+        this.inStock = this.stock > 0;
+        this.image = image;
+        this.createdAt = createdAt;
+        this.reviewCount = reviewCount != null ? reviewCount : 0;
+        this.ratingSum = ratingSum != null ? ratingSum : 0L;
+    }
+
+    // 소수점 첫째 자리까지의 평균 평점 (리뷰가 없으면 0)
+    public double getRatingAverage() {
+        return reviewCount > 0 ? Math.round(ratingSum * 10.0 / reviewCount) / 10.0 : 0.0;
+    }
+
+    // 평점 집계만 바꾼 사본 (스냅샷 교체용)
+    public ProductSummary withRating(int reviewCount, long ratingSum) {
+        return new ProductSummary(id, name, brand, category, price, originalPrice, discountPercent, discounted,
+                stock, image, createdAt, reviewCount, ratingSum);
+    }
+
+    public static ProductSummary from(Product product) {
+        return new ProductSummary(product.getId(), product.getName(), product.getBrand(), product.getCategory(),
+                product.getPrice(), product.getOriginalPrice(), product.getDiscountPercent(), product.isDiscounted(),
+                product.getStock(), listImage(product), product.getCreatedAt());
+    }
+
+    // 목록 타일은 480px 변형을 쓰고, 아직 변형이 없으면 원본으로 대체
+    private static String listImage(Product product) {
+        ImageVariants variants = product.getImageVariants();
+        return variants != null && variants.getListUrl() != null ? variants.getListUrl() : product.getImage();
+    }
+}
@@ -0,0 +1,32 @@
+package com.company.baseballshop.dto;
+
+import com.company.baseballshop.model.ProductRatingSummary;
+import lombok.Getter;
+
+import java.util.List;
+
+// 상품 상세 응답용 평점 요약 (개수, 평균, 1~5점 분포)
+@Getter
+public class RatingSummary {
+    private final int reviewCount;
+    private final double ratingAverage;
+    private final List<Integer> histogram; // index 0 = 1점 ... index 4 = 5점
+
+    private RatingSummary(int reviewCount, long ratingSum, List<Integer> histogram) {
+        this.reviewCount = reviewCount;
+        this.ratingAverage = reviewCount > 0 ? Math.round(ratingSum * 10.0 / reviewCount) / 10.0 : 0.0;
+        this.histogram = histogram;
+    }
+
+    public static RatingSummary from(ProductRatingSummary summary) {
+        if (summary == null) {
+            return empty();
+        }
+        return new RatingSummary(summary.getReviewCount(), summary.getRatingSum(),
+                List.of(summary.getStar1(), summary.getStar2(), summary.getStar3(), summary.getStar4(), summary.getStar5()));
+    }
+
+    public static RatingSummary empty() {
+        return new RatingSummary(0, 0L, List.of(0, 0, 0, 0, 0));
+    }
+}
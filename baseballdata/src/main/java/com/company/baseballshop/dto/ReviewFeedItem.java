@@ -0,0 +1,57 @@
+package com.company.baseballshop.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// 상품별 리뷰 목록 항목. 리뷰 컬럼은 JPQL 생성자 표현식으로, 댓글은 페이지 단위 IN 조회로 채운다
+@Getter
+public class ReviewFeedItem {
+    private final Long id;
+    private final String nickname;
+    private final String content;
+    private final String imageUrl;
+    private final int rating;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    private int commentCount;                 // 전체 댓글 수 (응답에 포함된 수보다 클 수 있음)
+    private final List<Comment> comments = new ArrayList<>();
+
+    public ReviewFeedItem(Long id, String nickname, String content, String imageUrl, Integer rating,
+                          LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.nickname = nickname;
+        this.content = content;
+        this.imageUrl = imageUrl;
+        this.rating = rating != null ? rating : 0;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public void addComment(Comment comment, int totalCount) {
+        comments.add(comment);
+        commentCount = totalCount;
+    }
+
+    public boolean isHasMoreComments() {
+        return commentCount > comments.size();
+    }
+
+    @Getter
+    public static class Comment {
+        private final Long id;
+        private final String content;
+        private final String userEmail;
+        private final LocalDateTime createdAt;
+
+        public Comment(Long id, String content, String userEmail, LocalDateTime createdAt) {
+            this.id = id;
+            this.content = content;
+            this.userEmail = userEmail;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.company.baseballshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ReviewPageResponse {
+    private final List<ReviewFeedItem> items;
+    private final String nextCursor; // 다음 페이지 요청 시 그대로 전달 (마지막 페이지면 null)
+    private final boolean hasNext;
+    private final int size;
+}
@@ -7,7 +7,9 @@ import lombok.Setter;
 
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_cart_user_product", columnNames = {"user_id", "product_id"})
+})
 @Getter
 @Setter
 public class CartItem extends CartItemDTO {
@@ -15,11 +17,11 @@ public class CartItem extends CartItemDTO {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
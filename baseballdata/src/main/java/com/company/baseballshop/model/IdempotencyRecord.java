@@ -0,0 +1,38 @@
+package com.company.baseballshop.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// 결제 요청 Idempotency-Key 기록. 같은 키로 다시 요청하면 저장된 응답을 그대로 돌려준다
+@Data
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_scope_key", columnNames = "scope_key"),
+        indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 사용자 이메일 + ":" + 헤더 값
+    @Column(name = "scope_key", nullable = false, length = 300)
+    private String scopeKey;
+
+    // 요청 본문 SHA-256. 같은 키를 다른 요청에 재사용하는 것을 막는다
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,41 @@
+package com.company.baseballshop.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// 내용 해시(SHA-256)로 키를 정한 S3 이미지 객체와 참조 수. 참조가 0이 될 때만 실제 객체를 지운다
+@Data
+@Entity
+@Table(name = "image_objects",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_image_object_hash", columnNames = {"bucket", "content_hash"}),
+                @UniqueConstraint(name = "uk_image_object_key", columnNames = {"bucket", "object_key"})
+        })
+public class ImageObject {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String bucket;
+
+    @Column(name = "object_key", nullable = false, length = 300)
+    private String objectKey;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,25 @@
+package com.company.baseballshop.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// 이미지 파이프라인이 만든 리사이즈 변형 URL. 처리 전이거나 외부 이미지면 모두 null
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageVariants {
+    @Column(name = "image_thumbnail_url", length = 500)
+    private String thumbnailUrl; // 200px (장바구니, 주문 내역)
+
+    @Column(name = "image_list_url", length = 500)
+    private String listUrl;      // 480px (목록 타일)
+
+    @Column(name = "image_detail_url", length = 500)
+    private String detailUrl;    // 1080px (상세)
+}
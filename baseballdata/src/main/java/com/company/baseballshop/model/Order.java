@@ -7,13 +7,15 @@ import java.util.List;
 
 @Data
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_order_user_created_id", columnList = "user_id, created_at, id")
+})
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -25,6 +27,10 @@ public class Order {
     private String paymentMethod;
     private String status;
 
+    // 포트원 paymentId. 클라이언트가 검증을 끝내지 못한 주문을 정산 작업이 다시 조회할 때 사용
+    @Column(name = "payment_key", length = 100)
+    private String paymentKey;
+
     @Column(updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
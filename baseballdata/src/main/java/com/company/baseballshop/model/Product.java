@@ -1,5 +1,6 @@
 package com.company.baseballshop.model;
 
+import com.company.baseballshop.dto.RatingSummary;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -7,7 +8,12 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.sql.Timestamp;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // 키셋 페이지네이션용 인덱스 (정렬 컬럼 + id)
+        @Index(name = "idx_product_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_product_category_created_id", columnList = "category, created_at, id"),
+        @Index(name = "idx_product_price_id", columnList = "price, id")
+})
 public class Product {
 
     @Id
@@ -41,7 +47,7 @@ public class Product {
     @Column(nullable = false)
     private boolean isDiscounted;
 
-    @Column(nullable = false, updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     @CreationTimestamp
     private Timestamp createdAt;
 
@@ -52,6 +58,13 @@ public class Product {
     @Column(length = 50, columnDefinition = "VARCHAR(50) DEFAULT 'Unknown'")
     private String brand;
 
+    @Embedded
+    private ImageVariants imageVariants;
+
+    // 상세 응답용 평점 요약 (product_rating_summaries에서 채움)
+    @Transient
+    private RatingSummary rating;
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -79,6 +92,10 @@ public class Product {
     public void setUpdatedAt(Timestamp updatedAt) { this.updatedAt = updatedAt; }
     public String getBrand() { return brand; }
     public void setBrand(String brand) { this.brand = brand; }
+    public ImageVariants getImageVariants() { return imageVariants; }
+    public void setImageVariants(ImageVariants imageVariants) { this.imageVariants = imageVariants; }
+    public RatingSummary getRating() { return rating; }
+    public void setRating(RatingSummary rating) { this.rating = rating; }
 
     // imageUrl과 image 필드 연결
     public void setImageUrl(String imageUrl) {
@@ -0,0 +1,41 @@
+package com.company.baseballshop.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// 상품별 리뷰 평점 집계. 리뷰 작성/수정/삭제 시 증감 UPDATE로만 갱신한다 (요청마다 GROUP BY 하지 않음)
+@Data
+@Entity
+@Table(name = "product_rating_summaries")
+public class ProductRatingSummary {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "review_count", nullable = false)
+    private int reviewCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    // 별점 분포 (1~5점)
+    @Column(name = "star1", nullable = false)
+    private int star1;
+
+    @Column(name = "star2", nullable = false)
+    private int star2;
+
+    @Column(name = "star3", nullable = false)
+    private int star3;
+
+    @Column(name = "star4", nullable = false)
+    private int star4;
+
+    @Column(name = "star5", nullable = false)
+    private int star5;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
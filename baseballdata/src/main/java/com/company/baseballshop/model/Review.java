@@ -4,13 +4,18 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        // 상품별 리뷰 키셋 페이지네이션용 인덱스
+        @Index(name = "idx_review_product_created_id", columnList = "product_id, created_at, id"),
+        @Index(name = "idx_review_product_rating_created_id", columnList = "product_id, rating, created_at, id")
+})
 @Getter
 @Setter
 public class Review {
@@ -27,6 +32,9 @@ public class Review {
     @Column(name = "image_url")
     private String imageUrl;
 
+    @Embedded
+    private ImageVariants imageVariants;
+
     @Column(name = "rating", nullable = false)
     private int rating; // 평점 추가 (1~5)
 
@@ -41,7 +49,9 @@ public class Review {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // 리뷰 목록 직렬화 시 댓글을 리뷰마다 따로 읽지 않고 IN 쿼리로 묶어 읽는다
     @OneToMany(mappedBy = "review", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<ReviewComment> comments = new ArrayList<>();
 
     @PrePersist
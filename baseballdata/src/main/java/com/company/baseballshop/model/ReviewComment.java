@@ -8,7 +8,8 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "review_comments")
+@Table(name = "review_comments",
+        indexes = @Index(name = "idx_review_comment_review_created_id", columnList = "review_id, created_at, id"))
 @Getter
 @Setter
 public class ReviewComment {
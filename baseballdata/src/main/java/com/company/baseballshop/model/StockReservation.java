@@ -0,0 +1,45 @@
+package com.company.baseballshop.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// 결제 대기(PENDING) 주문이 잡고 있는 재고. HELD -> COMMITTED(결제 완료) / RELEASED(실패·만료)
+@Data
+@Entity
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "idx_reservation_order_id", columnList = "order_id"),
+        @Index(name = "idx_reservation_status_expires", columnList = "status, expires_at")
+})
+public class StockReservation {
+    public static final String HELD = "HELD";
+    public static final String COMMITTED = "COMMITTED";
+    public static final String RELEASED = "RELEASED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    // 플래시 세일 카운터에서 차감된 예약 (해제 시 카운터로 되돌린다)
+    @Column(name = "flash_sale", nullable = false)
+    private boolean flashSale;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
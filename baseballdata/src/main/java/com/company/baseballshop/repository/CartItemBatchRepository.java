@@ -0,0 +1,70 @@
+package com.company.baseballshop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// 장바구니 여러 줄을 JDBC 배치로 한 번에 반영. (user_id, product_id) 유니크 키 기준 upsert
+@Repository
+@RequiredArgsConstructor
+public class CartItemBatchRepository {
+
+    private static final String ADD_SQL =
+            "INSERT INTO cart_items (user_id, product_id, quantity) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)";
+    private static final String SET_SQL =
+            "INSERT INTO cart_items (user_id, product_id, quantity) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)";
+    private static final String DELETE_SQL =
+            "DELETE FROM cart_items WHERE user_id = ? AND product_id = ?";
+    private static final String DELETE_UNCHANGED_SQL =
+            "DELETE FROM cart_items WHERE user_id = ? AND product_id = ? AND quantity = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Line(Long productId, int quantity) {}
+
+    public void addAll(Long userId, List<Line> lines) {
+        upsert(ADD_SQL, userId, lines);
+    }
+
+    public void setAll(Long userId, List<Line> lines) {
+        upsert(SET_SQL, userId, lines);
+    }
+
+    public void deleteAll(Long userId, List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, productIds, productIds.size(), (ps, productId) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, productId);
+        });
+    }
+
+    // 읽은 수량 그대로일 때만 삭제. 줄별 삭제 행 수를 입력 순서대로 반환 (1이 아니면 그 사이 바뀌었거나 지워진 줄)
+    public int[] deleteAllIfUnchanged(Long userId, List<Line> lines) {
+        if (lines.isEmpty()) {
+            return new int[0];
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(DELETE_UNCHANGED_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, line.productId());
+            ps.setInt(3, line.quantity());
+        });
+        return counts[0];
+    }
+
+    private void upsert(String sql, Long userId, List<Line> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, lines, lines.size(), (ps, line) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, line.productId());
+            ps.setInt(3, line.quantity());
+        });
+    }
+}
@@ -1,9 +1,13 @@
 package com.company.baseballshop.repository;
 
+import com.company.baseballshop.dto.CartItemDTO;
 import com.company.baseballshop.model.CartItem;
 import com.company.baseballshop.model.Product;
 import com.company.baseballshop.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,4 +15,17 @@ import java.util.Optional;
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     List<CartItem> findByUser(User user);
     Optional<CartItem> findByUserAndProduct(User user, Product product);
+
+    // 장바구니 조회: 사용자 이메일로 조인해 상품 정보까지 DTO로 바로 조회 (쿼리 1회)
+    @Query("SELECT new com.company.baseballshop.dto.CartItemDTO(c.id, p.id, p.name, p.price, p.originalPrice, " +
+            "p.discountPercent, p.isDiscounted, COALESCE(p.imageVariants.thumbnailUrl, p.image), c.quantity, p.stock) " +
+            "FROM CartItem c JOIN c.product p JOIN c.user u " +
+            "WHERE u.email = :email ORDER BY c.id ASC")
+    List<CartItemDTO> findCartLinesByEmail(@Param("email") String email);
+
+    // (user_id, product_id) 유니크 키 기준 원자적 추가. 이미 있으면 수량만 더한다
+    @Modifying
+    @Query(value = "INSERT INTO cart_items (user_id, product_id, quantity) VALUES (:userId, :productId, :quantity) " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + :quantity", nativeQuery = true)
+    int upsertAddQuantity(@Param("userId") Long userId, @Param("productId") Long productId, @Param("quantity") int quantity);
 }
\ No newline at end of file
@@ -1,7 +1,20 @@
 package com.company.baseballshop.repository;
 
 import com.company.baseballshop.model.DiscountedProduct;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface DiscountedProductRepository extends JpaRepository<DiscountedProduct, Long> {
+
+    // 고아 이미지 정리용 [id, imageUrl]
+    @Query("SELECT d.id, d.imageUrl FROM DiscountedProduct d WHERE d.id > :afterId ORDER BY d.id ASC")
+    List<Object[]> findImagesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT d.imageUrl FROM DiscountedProduct d WHERE d.imageUrl IN :imageUrls")
+    List<String> findImagesIn(@Param("imageUrls") Collection<String> imageUrls);
 }
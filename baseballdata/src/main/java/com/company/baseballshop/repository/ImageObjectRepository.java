@@ -0,0 +1,44 @@
+package com.company.baseballshop.repository;
+
+import com.company.baseballshop.model.ImageObject;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ImageObjectRepository extends JpaRepository<ImageObject, Long> {
+
+    Optional<ImageObject> findByBucketAndContentHash(String bucket, String contentHash);
+
+    // 같은 내용이 이미 있으면 참조만 늘린다. 0이면 색인에 없음 → 새로 업로드해야 함
+    @Modifying
+    @Query("UPDATE ImageObject o SET o.refCount = o.refCount + 1 WHERE o.bucket = :bucket AND o.contentHash = :hash")
+    int acquire(@Param("bucket") String bucket, @Param("hash") String hash);
+
+    // 업로드 후 색인 등록. 동시에 같은 내용을 올린 요청이 먼저 등록했으면 참조만 늘린다
+    @Modifying
+    @Query(value = "INSERT INTO image_objects (bucket, object_key, content_hash, content_type, size_bytes, ref_count, created_at) " +
+            "VALUES (:bucket, :objectKey, :hash, :contentType, :size, 1, NOW()) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1", nativeQuery = true)
+    int register(@Param("bucket") String bucket, @Param("objectKey") String objectKey, @Param("hash") String hash,
+                 @Param("contentType") String contentType, @Param("size") long size);
+
+    // 참조 해제 시 행을 잠가 같은 내용의 동시 업로드가 삭제 도중 객체를 재사용하지 못하게 한다
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM ImageObject o WHERE o.bucket = :bucket AND o.objectKey = :objectKey")
+    Optional<ImageObject> findForUpdate(@Param("bucket") String bucket, @Param("objectKey") String objectKey);
+
+    // 고아 이미지 정리용 [id, objectKey]
+    @Query("SELECT o.id, o.objectKey FROM ImageObject o WHERE o.bucket = :bucket AND o.id > :afterId ORDER BY o.id ASC")
+    List<Object[]> findKeysAfter(@Param("bucket") String bucket, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT o.objectKey FROM ImageObject o WHERE o.bucket = :bucket AND o.objectKey IN :keys")
+    List<String> findKeysIn(@Param("bucket") String bucket, @Param("keys") Collection<String> keys);
+}
@@ -0,0 +1,32 @@
+package com.company.baseballshop.repository;
+
+import com.company.baseballshop.model.OrderItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// 주문 항목 일괄 저장. IDENTITY 키라 Hibernate 배치가 동작하지 않으므로 JDBC 배치로 직접 넣는다
+// (rewriteBatchedStatements=true 설정 시 다중 행 INSERT 한 문장으로 전송됨)
+@Repository
+@RequiredArgsConstructor
+public class OrderItemBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO order_items (order_id, product_id, quantity, price_at_purchase) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<OrderItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.getOrder().getId());
+            ps.setLong(2, item.getProduct().getId());
+            ps.setInt(3, item.getQuantity());
+            ps.setInt(4, item.getPriceAtPurchase());
+        });
+    }
+}
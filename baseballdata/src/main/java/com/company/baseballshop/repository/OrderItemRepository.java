@@ -2,11 +2,24 @@ package com.company.baseballshop.repository;
 
 import com.company.baseballshop.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
+
+    // 여러 주문의 항목을 한 번에 조회: [orderId, productId, productName, image, quantity, priceAtPurchase]
+    @Query("SELECT oi.order.id, p.id, p.name, COALESCE(p.imageVariants.thumbnailUrl, p.image), oi.quantity, oi.priceAtPurchase " +
+            "FROM OrderItem oi LEFT JOIN oi.product p " +
+            "WHERE oi.order.id IN :orderIds ORDER BY oi.order.id, oi.id")
+    List<Object[]> findLinesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // 상품별 누적 판매 수량: [productId, sum(quantity)]
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi WHERE oi.product IS NOT NULL GROUP BY oi.product.id")
+    List<Object[]> sumQuantityByProduct();
 }
@@ -1,14 +1,63 @@
 package com.company.baseballshop.repository;
 
 
+import com.company.baseballshop.dto.OrderSummary;
 import com.company.baseballshop.model.Order;
 import com.company.baseballshop.model.OrderItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    // 현재 상태가 from일 때만 상태 변경 (동시 처리 시 한쪽만 성공)
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = LOCAL_DATETIME WHERE o.id = :id AND o.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") String from, @Param("to") String to);
+
+    // 결제 키가 없는 결제 대기 주문만 만료. 결제창이 열린 주문은 정산 작업이 포트원 결과로 처리한다
+    @Modifying
+    @Query("UPDATE Order o SET o.status = 'EXPIRED', o.updatedAt = LOCAL_DATETIME " +
+            "WHERE o.id = :id AND o.status = 'PENDING' AND o.paymentKey IS NULL")
+    int expireUnpaid(@Param("id") Long id);
+
+    boolean existsByIdAndStatus(Long id, String status);
+
+    // 결제 검증 요청자가 주문자 본인이고, 주문에 다른 결제 키가 붙어 있지 않은지
+    @Query("SELECT COUNT(o) > 0 FROM Order o WHERE o.id = :id AND o.user.email = :email " +
+            "AND (o.paymentKey IS NULL OR o.paymentKey = :paymentKey)")
+    boolean isPayableBy(@Param("id") Long id, @Param("paymentKey") String paymentKey, @Param("email") String email);
+
+    // 본인의 결제 대기 주문에만, 이미 다른 결제 키가 붙어 있지 않을 때만 기록 (같은 키 재등록은 1건으로 센다)
+    @Modifying
+    @Query("UPDATE Order o SET o.paymentKey = :paymentKey " +
+            "WHERE o.id = :id AND o.status = 'PENDING' AND o.user.email = :email " +
+            "AND (o.paymentKey IS NULL OR o.paymentKey = :paymentKey)")
+    int updatePaymentKeyForUser(@Param("id") Long id, @Param("paymentKey") String paymentKey, @Param("email") String email);
+
+    // 내 주문 내역: (user_id, created_at, id) 인덱스를 따라 최신순 키셋 조회. o.user.id는 FK 컬럼이라 users 조인이 없다
+    @Query("SELECT new com.company.baseballshop.dto.OrderSummary(o.id, o.orderName, o.amount, o.status, o.createdAt) " +
+            "FROM Order o WHERE o.user.id = :userId " +
+            "AND (:cursorCreatedAt IS NULL " +
+            "     OR o.createdAt < :cursorCreatedAt " +
+            "     OR (o.createdAt = :cursorCreatedAt AND o.id < :cursorId)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findPageByUser(@Param("userId") Long userId,
+                                      @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                      @Param("cursorId") Long cursorId,
+                                      Pageable pageable);
+
+    // 정산용 키셋 스캔: idx_order_status(status)는 PK를 포함하므로 (status, id) 범위 조회가 된다
+    // [id, paymentKey, amount, createdAt]
+    @Query("SELECT o.id, o.paymentKey, o.amount, o.createdAt FROM Order o " +
+            "WHERE o.status = :status AND o.id > :afterId ORDER BY o.id ASC")
+    List<Object[]> findIdsByStatusAfter(@Param("status") String status, @Param("afterId") Long afterId, Pageable pageable);
 }
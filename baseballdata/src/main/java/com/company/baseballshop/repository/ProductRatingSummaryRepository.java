@@ -0,0 +1,49 @@
+package com.company.baseballshop.repository;
+
+import com.company.baseballshop.model.ProductRatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ProductRatingSummaryRepository extends JpaRepository<ProductRatingSummary, Long> {
+
+    // 집계 행이 없으면 만들고, 있으면 증감분만 더한다. addStar/removeStar가 0이면 해당 분포는 변하지 않음
+    @Modifying
+    @Query(value = "INSERT INTO product_rating_summaries " +
+            "(product_id, review_count, rating_sum, star1, star2, star3, star4, star5, updated_at) " +
+            "VALUES (:productId, :countDelta, :sumDelta, " +
+            "(:addStar = 1) - (:removeStar = 1), (:addStar = 2) - (:removeStar = 2), (:addStar = 3) - (:removeStar = 3), " +
+            "(:addStar = 4) - (:removeStar = 4), (:addStar = 5) - (:removeStar = 5), NOW()) " +
+            "ON DUPLICATE KEY UPDATE review_count = review_count + VALUES(review_count), " +
+            "rating_sum = rating_sum + VALUES(rating_sum), " +
+            "star1 = star1 + VALUES(star1), star2 = star2 + VALUES(star2), star3 = star3 + VALUES(star3), " +
+            "star4 = star4 + VALUES(star4), star5 = star5 + VALUES(star5), updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int applyDelta(@Param("productId") Long productId,
+                   @Param("countDelta") int countDelta,
+                   @Param("sumDelta") int sumDelta,
+                   @Param("addStar") int addStar,
+                   @Param("removeStar") int removeStar);
+
+    // 야간 검증 작업에서 어긋난 행을 실제 집계값으로 덮어쓴다
+    @Modifying
+    @Query(value = "INSERT INTO product_rating_summaries " +
+            "(product_id, review_count, rating_sum, star1, star2, star3, star4, star5, updated_at) " +
+            "VALUES (:productId, :count, :sum, :star1, :star2, :star3, :star4, :star5, NOW()) " +
+            "ON DUPLICATE KEY UPDATE review_count = VALUES(review_count), rating_sum = VALUES(rating_sum), " +
+            "star1 = VALUES(star1), star2 = VALUES(star2), star3 = VALUES(star3), " +
+            "star4 = VALUES(star4), star5 = VALUES(star5), updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int overwrite(@Param("productId") Long productId, @Param("count") int count, @Param("sum") long sum,
+                  @Param("star1") int star1, @Param("star2") int star2, @Param("star3") int star3,
+                  @Param("star4") int star4, @Param("star5") int star5);
+
+    // 전체 재집계 (야간 검증 전용). [productId, count, sum, star1..star5]
+    @Query(value = "SELECT product_id, COUNT(*), COALESCE(SUM(rating), 0), " +
+            "SUM(rating = 1), SUM(rating = 2), SUM(rating = 3), SUM(rating = 4), SUM(rating = 5) " +
+            "FROM reviews WHERE product_id IS NOT NULL GROUP BY product_id", nativeQuery = true)
+    List<Object[]> aggregateFromReviews();
+}
@@ -1,12 +1,30 @@
 package com.company.baseballshop.repository;
 
+import com.company.baseballshop.dto.ProductSummary;
+import com.company.baseballshop.model.ImageVariants;
 import com.company.baseballshop.model.Product;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    // 목록 조회용 프로젝션 컬럼 (description 등 대용량 컬럼 제외)
+    String SUMMARY_COLUMNS = "new com.company.baseballshop.dto.ProductSummary(" +
+            "p.id, p.name, p.brand, p.category, p.price, p.originalPrice, p.discountPercent, p.isDiscounted, " +
+            "p.stock, COALESCE(p.imageVariants.listUrl, p.image), p.createdAt, " +
+            "r.reviewCount, r.ratingSum)";
+    // 평점 집계는 PK 조인 한 번으로 함께 읽는다
+    String SUMMARY_FROM = " FROM Product p LEFT JOIN ProductRatingSummary r ON r.productId = p.id";
+
     List<Product> findByCategory(String category);
 
     List<Product> findByCategoryAndBrand(String category, String brand);
@@ -15,4 +33,103 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     @Query("SELECT DISTINCT p.brand FROM Product p WHERE p.brand IS NOT NULL ORDER BY p.brand")
     List<String> findDistinctBrands();
-}
\ No newline at end of file
+
+    @Query("SELECT " + SUMMARY_COLUMNS + SUMMARY_FROM + " ORDER BY p.id")
+    List<ProductSummary> findAllSummaries();
+
+    // 플래시 세일 시작 시 재고를 카운터로 옮기는 동안 다른 차감을 막는다
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+    // 재고 차감: 남은 재고가 충분할 때만 1건 갱신 (0이면 재고 부족)
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :id AND p.stock >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // 플래시 세일 시작 시 잠근 행의 재고를 카운터로 옮길 때 사용
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :id")
+    int decrementStockUnchecked(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // 같은 이미지 URL을 쓰는 상품 중 이미 변형이 만들어진 것 (내용 해시 키라 재사용 가능)
+    @Query("SELECT p.imageVariants FROM Product p WHERE p.image = :image AND p.imageVariants.listUrl IS NOT NULL")
+    List<ImageVariants> findImageVariantsByImage(@Param("image") String image, Pageable pageable);
+
+    // 이미지 파이프라인 결과 반영. 처리 중에 이미지가 교체됐으면(image 불일치) 갱신하지 않는다
+    @Modifying
+    @Query("UPDATE Product p SET p.imageVariants.thumbnailUrl = :thumbnailUrl, p.imageVariants.listUrl = :listUrl, " +
+            "p.imageVariants.detailUrl = :detailUrl WHERE p.id = :id AND p.image = :image")
+    int updateImageVariants(@Param("id") Long id, @Param("image") String image,
+                            @Param("thumbnailUrl") String thumbnailUrl,
+                            @Param("listUrl") String listUrl,
+                            @Param("detailUrl") String detailUrl);
+
+    // 키셋 페이지네이션: 최신순 (createdAt DESC, id DESC)
+    @Query("SELECT " + SUMMARY_COLUMNS + SUMMARY_FROM + " " +
+            "WHERE (:category IS NULL OR p.category = :category) " +
+            "AND (:brand IS NULL OR p.brand = :brand) " +
+            "AND (:discounted IS NULL OR p.isDiscounted = :discounted) " +
+            "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+            "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+            "AND (:cursorCreatedAt IS NULL OR p.createdAt < :cursorCreatedAt " +
+            "     OR (p.createdAt = :cursorCreatedAt AND p.id < :cursorId)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductSummary> findPageByLatest(@Param("category") String category,
+                                   @Param("brand") String brand,
+                                   @Param("discounted") Boolean discounted,
+                                   @Param("minPrice") Integer minPrice,
+                                   @Param("maxPrice") Integer maxPrice,
+                                   @Param("cursorCreatedAt") Timestamp cursorCreatedAt,
+                                   @Param("cursorId") Long cursorId,
+                                   Pageable pageable);
+
+    // 키셋 페이지네이션: 낮은 가격순 (price ASC, id ASC)
+    @Query("SELECT " + SUMMARY_COLUMNS + SUMMARY_FROM + " " +
+            "WHERE (:category IS NULL OR p.category = :category) " +
+            "AND (:brand IS NULL OR p.brand = :brand) " +
+            "AND (:discounted IS NULL OR p.isDiscounted = :discounted) " +
+            "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+            "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+            "AND (:cursorPrice IS NULL OR p.price > :cursorPrice " +
+            "     OR (p.price = :cursorPrice AND p.id > :cursorId)) " +
+            "ORDER BY p.price ASC, p.id ASC")
+    List<ProductSummary> findPageByPriceAsc(@Param("category") String category,
+                                     @Param("brand") String brand,
+                                     @Param("discounted") Boolean discounted,
+                                     @Param("minPrice") Integer minPrice,
+                                     @Param("maxPrice") Integer maxPrice,
+                                     @Param("cursorPrice") Integer cursorPrice,
+                                     @Param("cursorId") Long cursorId,
+                                     Pageable pageable);
+
+    // 키셋 페이지네이션: 높은 가격순 (price DESC, id DESC)
+    @Query("SELECT " + SUMMARY_COLUMNS + SUMMARY_FROM + " " +
+            "WHERE (:category IS NULL OR p.category = :category) " +
+            "AND (:brand IS NULL OR p.brand = :brand) " +
+            "AND (:discounted IS NULL OR p.isDiscounted = :discounted) " +
+            "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+            "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+            "AND (:cursorPrice IS NULL OR p.price < :cursorPrice " +
+            "     OR (p.price = :cursorPrice AND p.id < :cursorId)) " +
+            "ORDER BY p.price DESC, p.id DESC")
+    List<ProductSummary> findPageByPriceDesc(@Param("category") String category,
+                                      @Param("brand") String brand,
+                                      @Param("discounted") Boolean discounted,
+                                      @Param("minPrice") Integer minPrice,
+                                      @Param("maxPrice") Integer maxPrice,
+                                      @Param("cursorPrice") Integer cursorPrice,
+                                      @Param("cursorId") Long cursorId,
+                                      Pageable pageable);
+
+    // 고아 이미지 정리용 [id, image]
+    @Query("SELECT p.id, p.image FROM Product p WHERE p.id > :afterId AND p.image IS NOT NULL ORDER BY p.id ASC")
+    List<Object[]> findImagesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT p.image FROM Product p WHERE p.image IN :images")
+    List<String> findImagesIn(@Param("images") Collection<String> images);
+}
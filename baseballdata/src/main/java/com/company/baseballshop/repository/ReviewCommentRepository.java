@@ -3,6 +3,22 @@ package com.company.baseballshop.repository;
 
 import com.company.baseballshop.model.ReviewComment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ReviewCommentRepository extends JpaRepository<ReviewComment, Long> {
-}
\ No newline at end of file
+
+    // 페이지의 리뷰 전체 댓글을 한 번에 조회하되 리뷰당 앞의 :perReview개만 가져온다
+    // [id, reviewId, content, userEmail, createdAt, 리뷰별 전체 댓글 수]
+    @Query(value = "SELECT t.id, t.review_id, t.content, t.user_email, t.created_at, t.total FROM (" +
+            "  SELECT c.id, c.review_id, c.content, c.user_email, c.created_at, " +
+            "         ROW_NUMBER() OVER (PARTITION BY c.review_id ORDER BY c.created_at, c.id) AS rn, " +
+            "         COUNT(*) OVER (PARTITION BY c.review_id) AS total " +
+            "  FROM review_comments c WHERE c.review_id IN (:reviewIds)" +
+            ") t WHERE t.rn <= :perReview ORDER BY t.review_id, t.rn", nativeQuery = true)
+    List<Object[]> findFirstCommentsByReviewIds(@Param("reviewIds") Collection<Long> reviewIds,
+                                                @Param("perReview") int perReview);
+}
@@ -1,11 +1,58 @@
 package com.company.baseballshop.repository;
 
+import com.company.baseballshop.dto.ReviewFeedItem;
 import com.company.baseballshop.model.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByNickname(String nickname);
 
-}
\ No newline at end of file
+    String FEED_COLUMNS = "new com.company.baseballshop.dto.ReviewFeedItem(" +
+            "r.id, r.nickname, r.content, COALESCE(r.imageVariants.listUrl, r.imageUrl), r.rating, r.createdAt, r.updatedAt)";
+
+    // 이미지 파이프라인 결과 반영. 처리 중에 사진이 교체됐으면 갱신하지 않는다
+    @Modifying
+    @Query("UPDATE Review r SET r.imageVariants.thumbnailUrl = :thumbnailUrl, r.imageVariants.listUrl = :listUrl, " +
+            "r.imageVariants.detailUrl = :detailUrl WHERE r.id = :id AND r.imageUrl = :imageUrl")
+    int updateImageVariants(@Param("id") Long id, @Param("imageUrl") String imageUrl,
+                            @Param("thumbnailUrl") String thumbnailUrl,
+                            @Param("listUrl") String listUrl,
+                            @Param("detailUrl") String detailUrl);
+
+    // 상품별 최신순 키셋 조회: (product_id, created_at, id) 인덱스
+    @Query("SELECT " + FEED_COLUMNS + " FROM Review r WHERE r.product.id = :productId " +
+            "AND (:cursorCreatedAt IS NULL OR r.createdAt < :cursorCreatedAt " +
+            "     OR (r.createdAt = :cursorCreatedAt AND r.id < :cursorId)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReviewFeedItem> findPageByProductLatest(@Param("productId") Long productId,
+                                                 @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                 @Param("cursorId") Long cursorId,
+                                                 Pageable pageable);
+
+    // 상품별 평점 높은순 키셋 조회: (product_id, rating, created_at, id) 인덱스
+    @Query("SELECT " + FEED_COLUMNS + " FROM Review r WHERE r.product.id = :productId " +
+            "AND (:cursorRating IS NULL OR r.rating < :cursorRating " +
+            "     OR (r.rating = :cursorRating AND r.createdAt < :cursorCreatedAt) " +
+            "     OR (r.rating = :cursorRating AND r.createdAt = :cursorCreatedAt AND r.id < :cursorId)) " +
+            "ORDER BY r.rating DESC, r.createdAt DESC, r.id DESC")
+    List<ReviewFeedItem> findPageByProductRating(@Param("productId") Long productId,
+                                                 @Param("cursorRating") Integer cursorRating,
+                                                 @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                 @Param("cursorId") Long cursorId,
+                                                 Pageable pageable);
+
+    // 고아 이미지 정리용 [id, imageUrl]
+    @Query("SELECT r.id, r.imageUrl FROM Review r WHERE r.id > :afterId AND r.imageUrl IS NOT NULL ORDER BY r.id ASC")
+    List<Object[]> findImagesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT r.imageUrl FROM Review r WHERE r.imageUrl IN :imageUrls")
+    List<String> findImagesIn(@Param("imageUrls") Collection<String> imageUrls);
+}
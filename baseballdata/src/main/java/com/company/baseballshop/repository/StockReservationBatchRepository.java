@@ -0,0 +1,52 @@
+package com.company.baseballshop.repository;
+
+import com.company.baseballshop.model.StockReservation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+// 재고 예약용 JDBC 배치. 상품별 조건부 차감과 예약 행 저장을 각각 한 번의 배치로 보낸다
+@Repository
+@RequiredArgsConstructor
+public class StockReservationBatchRepository {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET stock = stock - ? WHERE id = ? AND stock >= ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO stock_reservations (order_id, product_id, quantity, status, flash_sale, expires_at, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 상품별 갱신 행 수를 입력 순서대로 반환 (1이 아니면 재고 부족)
+    public int[] decrementAll(List<Map.Entry<Long, Integer>> quantities) {
+        if (quantities.isEmpty()) {
+            return new int[0];
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, quantities, quantities.size(), (ps, entry) -> {
+            ps.setInt(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+            ps.setInt(3, entry.getValue());
+        });
+        return counts[0];
+    }
+
+    public void insertAll(List<StockReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, reservations, reservations.size(), (ps, reservation) -> {
+            ps.setLong(1, reservation.getOrderId());
+            ps.setLong(2, reservation.getProductId());
+            ps.setInt(3, reservation.getQuantity());
+            ps.setString(4, reservation.getStatus());
+            ps.setBoolean(5, reservation.isFlashSale());
+            ps.setTimestamp(6, Timestamp.valueOf(reservation.getExpiresAt()));
+            ps.setTimestamp(7, Timestamp.valueOf(reservation.getCreatedAt()));
+        });
+    }
+}
@@ -0,0 +1,31 @@
+package com.company.baseballshop.repository;
+
+import com.company.baseballshop.model.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    List<StockReservation> findByOrderIdAndStatus(Long orderId, String status);
+
+    boolean existsByOrderId(Long orderId);
+
+    // 상태 전이는 조건부 UPDATE로 처리해 결제 검증과 만료 처리가 겹쳐도 한 번만 반영되게 한다
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") Long id, @Param("from") String from, @Param("to") String to);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.orderId = :orderId AND r.status = :from")
+    int transitionByOrderId(@Param("orderId") Long orderId, @Param("from") String from, @Param("to") String to);
+
+    // 결제 키가 등록된 결제 대기 주문은 제외 (포트원 결과를 모르므로 정산 작업이 처리한다)
+    @Query("SELECT DISTINCT r.orderId FROM StockReservation r WHERE r.status = 'HELD' AND r.expiresAt < :now " +
+            "AND r.orderId NOT IN (SELECT o.id FROM Order o WHERE o.status = 'PENDING' AND o.paymentKey IS NOT NULL)")
+    List<Long> findExpiredOrderIds(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,69 @@
+package com.company.baseballshop.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// 한글은 음절 바이그램, 영문/숫자는 단어 단위로 분리하는 토크나이저
+// 예) "미즈노 배팅장갑 53701" -> [미즈, 즈노, 배팅, 팅장, 장갑, 53701]
+public final class KoreanBigramTokenizer {
+
+    private KoreanBigramTokenizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String normalized = normalize(text);
+        int length = normalized.length();
+        int start = 0;
+        while (start < length) {
+            char c = normalized.charAt(start);
+            if (!Character.isLetterOrDigit(c)) {
+                start++;
+                continue;
+            }
+            // 같은 문자 종류(한글 / 그 외 문자·숫자)가 이어지는 구간을 하나의 세그먼트로 본다
+            boolean hangul = isHangul(c);
+            int end = start + 1;
+            while (end < length) {
+                char next = normalized.charAt(end);
+                if (!Character.isLetterOrDigit(next) || isHangul(next) != hangul) {
+                    break;
+                }
+                end++;
+            }
+            String segment = normalized.substring(start, end);
+            if (hangul) {
+                addBigrams(segment, tokens);
+            } else {
+                tokens.add(segment);
+            }
+            start = end;
+        }
+        return tokens;
+    }
+
+    private static void addBigrams(String segment, List<String> tokens) {
+        if (segment.length() == 1) {
+            tokens.add(segment);
+            return;
+        }
+        for (int i = 0; i + 2 <= segment.length(); i++) {
+            tokens.add(segment.substring(i, i + 2));
+        }
+    }
+
+    static boolean isHangul(char c) {
+        return (c >= '가' && c <= '힣')   // 완성형 음절
+                || (c >= 'ᄀ' && c <= 'ᇿ')  // 자모
+                || (c >= '㄰' && c <= '㆏'); // 호환 자모
+    }
+}
@@ -0,0 +1,244 @@
+package com.company.baseballshop.search;
+
+import com.company.baseballshop.model.Product;
+import com.company.baseballshop.repository.ProductRepository;
+import com.company.baseballshop.service.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// 상품명/브랜드/설명에 대한 인프로세스 역색인 (BM25 랭킹, 마지막 검색어 접두어 매칭)
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    // BM25 파라미터
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // 필드 가중치: 상품명 > 브랜드 > 설명
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // 접두어 확장 시 가중치와 확장 개수 상한
+    private static final double PREFIX_WEIGHT = 0.7;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private Map<Long, DocInfo> docs = new HashMap<>();
+    private double totalLength;
+
+    private static final class DocInfo {
+        private final String category;
+        private final String brand;
+        private final float length;
+        private final Set<String> terms;
+
+        private DocInfo(String category, String brand, float length, Set<String> terms) {
+            this.category = category;
+            this.brand = brand;
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.refresh-interval-ms:600000}",
+            initialDelayString = "${search.index.refresh-interval-ms:600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    // 전체 재색인: 새 구조를 만든 뒤 쓰기 락 안에서 교체
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        TreeMap<String, Map<Long, Float>> newPostings = new TreeMap<>();
+        Map<Long, DocInfo> newDocs = new HashMap<>();
+        double newTotalLength = 0;
+        for (Product product : products) {
+            newTotalLength += addDocument(product, newPostings, newDocs);
+        }
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            docs = newDocs;
+            totalLength = newTotalLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("검색 색인 재구성 완료: documents={}, terms={}", newDocs.size(), newPostings.size());
+    }
+
+    public void onProductSaved(Product product) {
+        Product snapshot = copyForIndex(product);
+        TransactionCallbacks.afterCommit(() -> upsert(snapshot));
+    }
+
+    public void onProductDeleted(Long productId) {
+        TransactionCallbacks.afterCommit(() -> remove(productId));
+    }
+
+    public void upsert(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(product.getId());
+            totalLength += addDocument(product, postings, docs);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // category, brand가 null이면 필터 없음. limit 개수만큼 점수 내림차순으로 반환
+    public List<SearchHit> search(String query, String category, String brand, int limit) {
+        List<String> queryTerms = KoreanBigramTokenizer.tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int docCount = docs.size();
+            if (docCount == 0) {
+                return List.of();
+            }
+            double avgLength = totalLength / docCount;
+            Map<Long, Double> scores = new HashMap<>();
+
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String term = queryTerms.get(i);
+                boolean last = i == queryTerms.size() - 1;
+                Map<Long, Float> exact = postings.get(term);
+                if (exact != null) {
+                    accumulate(exact, 1.0, docCount, avgLength, category, brand, scores);
+                }
+                // 입력 중인 마지막 단어는 접두어로도 매칭 (예: "미즈" -> "미즈노")
+                if (last) {
+                    NavigableMap<String, Map<Long, Float>> expansions =
+                            postings.subMap(term, false, term + Character.MAX_VALUE, false);
+                    int expanded = 0;
+                    for (Map<Long, Float> posting : expansions.values()) {
+                        if (expanded++ >= MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                        accumulate(posting, PREFIX_WEIGHT, docCount, avgLength, category, brand, scores);
+                    }
+                }
+            }
+
+            List<SearchHit> hits = new ArrayList<>(scores.size());
+            scores.forEach((id, score) -> hits.add(new SearchHit(id, score)));
+            hits.sort(Comparator.comparingDouble(SearchHit::getScore).reversed()
+                    .thenComparing(SearchHit::getProductId));
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void accumulate(Map<Long, Float> posting, double boost, int docCount, double avgLength,
+                            String category, String brand, Map<Long, Double> scores) {
+        int df = posting.size();
+        double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+        for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+            DocInfo doc = docs.get(entry.getKey());
+            if (doc == null || !matches(doc, category, brand)) {
+                continue;
+            }
+            double tf = entry.getValue();
+            double norm = tf * (K1 + 1) / (tf + K1 * (1 - B + B * doc.length / avgLength));
+            scores.merge(entry.getKey(), boost * idf * norm, Double::sum);
+        }
+    }
+
+    private boolean matches(DocInfo doc, String category, String brand) {
+        return (category == null || category.equals(doc.category))
+                && (brand == null || brand.equals(doc.brand));
+    }
+
+    // 문서를 색인에 추가하고 가중 문서 길이를 반환
+    private float addDocument(Product product, TreeMap<String, Map<Long, Float>> target, Map<Long, DocInfo> targetDocs) {
+        Map<String, Float> termFrequencies = new HashMap<>();
+        addField(product.getName(), NAME_WEIGHT, termFrequencies);
+        addField(product.getBrand(), BRAND_WEIGHT, termFrequencies);
+        addField(product.getDescription(), DESCRIPTION_WEIGHT, termFrequencies);
+
+        float length = 0;
+        for (Map.Entry<String, Float> entry : termFrequencies.entrySet()) {
+            target.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(product.getId(), entry.getValue());
+            length += entry.getValue();
+        }
+        targetDocs.put(product.getId(),
+                new DocInfo(product.getCategory(), product.getBrand(), length, new HashSet<>(termFrequencies.keySet())));
+        return length;
+    }
+
+    private void addField(String text, float weight, Map<String, Float> termFrequencies) {
+        for (String token : KoreanBigramTokenizer.tokenize(text)) {
+            termFrequencies.merge(token, weight, Float::sum);
+        }
+    }
+
+    private void removeInternal(Long productId) {
+        DocInfo doc = docs.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        totalLength -= doc.length;
+        removePostings(productId, doc.terms);
+    }
+
+    private void removePostings(Long productId, Collection<String> terms) {
+        for (String term : terms) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    // 색인에 필요한 필드만 복사 (영속성 컨텍스트의 엔티티를 커밋 이후까지 붙잡지 않도록)
+    private Product copyForIndex(Product product) {
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setBrand(product.getBrand());
+        copy.setCategory(product.getCategory());
+        copy.setDescription(product.getDescription());
+        return copy;
+    }
+}
@@ -0,0 +1,194 @@
+package com.company.baseballshop.search;
+
+import com.company.baseballshop.dto.ProductSummary;
+import com.company.baseballshop.model.Product;
+import com.company.baseballshop.repository.OrderItemRepository;
+import com.company.baseballshop.repository.ProductRepository;
+import com.company.baseballshop.service.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// 상품명/브랜드 검색어 자동완성. 인기도(누적 판매 수량) 순으로 정렬된 접두어 트라이에서 DB 없이 조회한다
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSuggester {
+
+    private static final int TOP_K = 10;
+    private static final int MAX_WORD_KEYS = 8; // 상품명 중간 단어부터 매칭할 때 사용할 최대 단어 수
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private SuggestionTrie trie = new SuggestionTrie(TOP_K);
+    private Map<Long, Indexed> products = new HashMap<>();
+    private Map<String, BrandEntry> brands = new HashMap<>();
+    private Map<Long, Long> sales = new HashMap<>();
+
+    private static final class Indexed {
+        private final Suggestion suggestion;
+        private final List<String> keys;
+        private final String brand;
+
+        private Indexed(Suggestion suggestion, List<String> keys, String brand) {
+            this.suggestion = suggestion;
+            this.keys = keys;
+            this.brand = brand;
+        }
+    }
+
+    private static final class BrandEntry {
+        private int productCount;
+        private long salesSum;
+        private Suggestion suggestion;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    // 인기도(판매 수량)는 주문이 쌓이며 바뀌므로 주기적으로 전체 재구성
+    @Scheduled(fixedDelayString = "${search.suggest.refresh-interval-ms:3600000}",
+            initialDelayString = "${search.suggest.refresh-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        Map<Long, Long> loadedSales = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumQuantityByProduct()) {
+            loadedSales.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        List<ProductSummary> summaries = productRepository.findAllSummaries();
+
+        lock.writeLock().lock();
+        try {
+            trie = new SuggestionTrie(TOP_K);
+            products = new HashMap<>();
+            brands = new HashMap<>();
+            sales = loadedSales;
+            for (ProductSummary summary : summaries) {
+                addProduct(summary.getId(), summary.getName(), summary.getBrand());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("자동완성 트라이 재구성 완료: products={}, brands={}", summaries.size(), brands.size());
+    }
+
+    public void onProductSaved(Product product) {
+        Long id = product.getId();
+        String name = product.getName();
+        String brand = product.getBrand();
+        TransactionCallbacks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeProduct(id);
+                addProduct(id, name, brand);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void onProductDeleted(Long productId) {
+        TransactionCallbacks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeProduct(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public List<Suggestion> suggest(String query, int limit) {
+        String prefix = normalizeKey(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return trie.lookup(prefix, Math.min(limit, TOP_K));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addProduct(Long id, String name, String brand) {
+        long score = sales.getOrDefault(id, 0L);
+        Suggestion suggestion = new Suggestion(name, Suggestion.Type.PRODUCT, id, score);
+        List<String> keys = keysFor(name);
+        for (String key : keys) {
+            trie.insert(key, suggestion);
+        }
+        products.put(id, new Indexed(suggestion, keys, brand));
+        if (brand != null) {
+            updateBrand(brand, 1, score);
+        }
+    }
+
+    private void removeProduct(Long id) {
+        Indexed indexed = products.remove(id);
+        if (indexed == null) {
+            return;
+        }
+        for (String key : indexed.keys) {
+            trie.remove(key, indexed.suggestion);
+        }
+        if (indexed.brand != null) {
+            updateBrand(indexed.brand, -1, -indexed.suggestion.getScore());
+        }
+    }
+
+    // 브랜드 후보는 소속 상품 수/판매량이 바뀔 때마다 새 점수로 교체
+    private void updateBrand(String brand, int countDelta, long salesDelta) {
+        BrandEntry entry = brands.computeIfAbsent(brand, k -> new BrandEntry());
+        String key = normalizeKey(brand);
+        if (entry.suggestion != null) {
+            trie.remove(key, entry.suggestion);
+        }
+        entry.productCount += countDelta;
+        entry.salesSum += salesDelta;
+        if (entry.productCount <= 0) {
+            brands.remove(brand);
+            return;
+        }
+        entry.suggestion = new Suggestion(brand, Suggestion.Type.BRAND, null, entry.salesSum);
+        trie.insert(key, entry.suggestion);
+    }
+
+    // 전체 이름 + 각 단어 시작 위치부터의 접미어를 키로 등록 (예: "미즈노 배팅장갑" -> "배팅장갑"으로도 검색)
+    private List<String> keysFor(String text) {
+        String normalized = normalizeKey(text);
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        int words = 1;
+        for (int i = 0; i < normalized.length() && words < MAX_WORD_KEYS; i++) {
+            if (normalized.charAt(i) == ' ' && i + 1 < normalized.length()) {
+                keys.add(normalized.substring(i + 1));
+                words++;
+            }
+        }
+        return keys;
+    }
+
+    private String normalizeKey(String text) {
+        return KoreanBigramTokenizer.normalize(text).replaceAll("\\s+", " ").trim();
+    }
+}
@@ -0,0 +1,11 @@
+package com.company.baseballshop.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SearchHit {
+    private final Long productId;
+    private final double score;
+}
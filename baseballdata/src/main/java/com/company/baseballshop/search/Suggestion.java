@@ -0,0 +1,17 @@
+package com.company.baseballshop.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 자동완성 후보. 동일성 비교는 인스턴스 기준 (같은 후보가 여러 키로 트라이에 들어간다)
+@Getter
+@AllArgsConstructor
+public class Suggestion {
+
+    public enum Type { PRODUCT, BRAND }
+
+    private final String text;
+    private final Type type;
+    private final Long productId; // BRAND면 null
+    private final long score;     // 인기도 (판매 수량 기반)
+}
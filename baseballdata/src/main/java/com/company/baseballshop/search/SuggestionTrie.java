@@ -0,0 +1,208 @@
+package com.company.baseballshop.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// 노드마다 자식을 정렬된 char 배열로 들고, 서브트리의 상위 K개 후보를 미리 저장하는 접두어 트라이.
+// 조회는 접두어 길이만큼만 내려가면 되고, 삽입/삭제 시 경로 위의 상위 K개만 갱신한다.
+// 스레드 안전하지 않으므로 호출 측에서 동기화한다.
+class SuggestionTrie {
+
+    private static final char[] EMPTY_KEYS = new char[0];
+    private static final Node[] EMPTY_NODES = new Node[0];
+    private static final Suggestion[] EMPTY_SUGGESTIONS = new Suggestion[0];
+
+    static final Comparator<Suggestion> RANKING = Comparator.comparingLong(Suggestion::getScore).reversed()
+            .thenComparingInt(s -> s.getText().length())
+            .thenComparing(Suggestion::getText);
+
+    private final int topK;
+    private final Node root = new Node();
+
+    SuggestionTrie(int topK) {
+        this.topK = topK;
+    }
+
+    private static final class Node {
+        private char[] keys = EMPTY_KEYS;
+        private Node[] children = EMPTY_NODES;
+        private Suggestion[] terminals = EMPTY_SUGGESTIONS; // 이 노드에서 끝나는 키의 후보
+        private Suggestion[] top = EMPTY_SUGGESTIONS;       // 서브트리 전체의 상위 K개
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node node = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = node;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+
+        private void removeChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys.length == 0 ? EMPTY_KEYS : newKeys;
+            children = newChildren.length == 0 ? EMPTY_NODES : newChildren;
+        }
+
+        private boolean isEmpty() {
+            return keys.length == 0 && terminals.length == 0;
+        }
+    }
+
+    void insert(String key, Suggestion suggestion) {
+        if (key.isEmpty()) {
+            return;
+        }
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            path[i + 1] = node;
+        }
+        node.terminals = append(node.terminals, suggestion);
+        // 추가는 순위를 올리기만 하므로 경로 위의 상위 K개에 끼워 넣기만 하면 된다
+        for (Node n : path) {
+            n.top = offer(n.top, suggestion);
+        }
+    }
+
+    void remove(String key, Suggestion suggestion) {
+        if (key.isEmpty()) {
+            return;
+        }
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i));
+            if (node == null) {
+                return;
+            }
+            path[i + 1] = node;
+        }
+        node.terminals = without(node.terminals, suggestion);
+
+        // 아래에서 위로: 빈 노드 정리 후, 해당 후보가 상위 K개에 있던 노드만 재계산
+        for (int depth = key.length(); depth >= 0; depth--) {
+            Node current = path[depth];
+            if (depth > 0 && current.isEmpty()) {
+                path[depth - 1].removeChild(key.charAt(depth - 1));
+                continue;
+            }
+            if (contains(current.top, suggestion)) {
+                current.top = recompute(current);
+            }
+        }
+    }
+
+    List<Suggestion> lookup(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        int size = Math.min(limit, node.top.length);
+        return List.of(Arrays.copyOf(node.top, size));
+    }
+
+    // 노드의 상위 K개 = (자신의 종료 후보 ∪ 자식들의 상위 K개) 중 상위 K개
+    private Suggestion[] recompute(Node node) {
+        List<Suggestion> candidates = new ArrayList<>(Arrays.asList(node.terminals));
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        Suggestion[] result = EMPTY_SUGGESTIONS;
+        for (Suggestion candidate : candidates) {
+            result = offer(result, candidate);
+        }
+        return result;
+    }
+
+    // 정렬된 상위 K개 배열에 후보를 넣은 새 배열 (이미 있거나 순위 밖이면 그대로)
+    private Suggestion[] offer(Suggestion[] top, Suggestion suggestion) {
+        if (contains(top, suggestion)) {
+            return top;
+        }
+        int position = 0;
+        while (position < top.length && RANKING.compare(top[position], suggestion) <= 0) {
+            position++;
+        }
+        if (position >= topK) {
+            return top;
+        }
+        int newLength = Math.min(top.length + 1, topK);
+        Suggestion[] result = new Suggestion[newLength];
+        System.arraycopy(top, 0, result, 0, position);
+        result[position] = suggestion;
+        System.arraycopy(top, position, result, position + 1, newLength - position - 1);
+        return result;
+    }
+
+    private static boolean contains(Suggestion[] array, Suggestion suggestion) {
+        for (Suggestion s : array) {
+            if (s == suggestion) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Suggestion[] append(Suggestion[] array, Suggestion suggestion) {
+        if (contains(array, suggestion)) {
+            return array;
+        }
+        Suggestion[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = suggestion;
+        return result;
+    }
+
+    private static Suggestion[] without(Suggestion[] array, Suggestion suggestion) {
+        int index = -1;
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == suggestion) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return array;
+        }
+        if (array.length == 1) {
+            return EMPTY_SUGGESTIONS;
+        }
+        Suggestion[] result = new Suggestion[array.length - 1];
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+}
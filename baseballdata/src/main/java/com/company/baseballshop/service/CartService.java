@@ -1,20 +1,26 @@
 package com.company.baseballshop.service;
 
 import com.company.baseballshop.dto.AddCartItemRequest;
+import com.company.baseballshop.dto.CartBatchRequest;
 import com.company.baseballshop.dto.CartItemDTO;
+import com.company.baseballshop.dto.CartSummary;
 import com.company.baseballshop.dto.UpdateCartItemRequest;
 import com.company.baseballshop.model.CartItem;
-import com.company.baseballshop.model.Product;
-import com.company.baseballshop.model.User;
+import com.company.baseballshop.repository.CartItemBatchRepository;
 import com.company.baseballshop.repository.CartItemRepository;
 import com.company.baseballshop.repository.ProductRepository;
 import com.company.baseballshop.repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -23,55 +29,142 @@ public class CartService {
     private final CartItemRepository cartItemRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final CartItemBatchRepository cartItemBatchRepository;
+    private final WriteBehindCartStore writeBehindCartStore;
+    private final CatalogCache catalogCache;
+    private final TransactionTemplate transactionTemplate;
 
-    public CartService(CartItemRepository cartItemRepository, UserRepository userRepository, ProductRepository productRepository) {
+    @Value("${cart.batch.max-lines:100}")
+    private int maxBatchLines;
+
+    public CartService(CartItemRepository cartItemRepository, UserRepository userRepository, ProductRepository productRepository,
+                       CartItemBatchRepository cartItemBatchRepository, WriteBehindCartStore writeBehindCartStore,
+                       CatalogCache catalogCache, TransactionTemplate transactionTemplate) {
         this.cartItemRepository = cartItemRepository;
         this.userRepository = userRepository;
         this.productRepository = productRepository;
+        this.cartItemBatchRepository = cartItemBatchRepository;
+        this.writeBehindCartStore = writeBehindCartStore;
+        this.catalogCache = catalogCache;
+        this.transactionTemplate = transactionTemplate;
     }
 
-    @Transactional
+    // 조회 후 저장 대신 upsert 한 문장으로 처리해 더블 클릭에도 한 줄만 생긴다
     public void addCartItem(String email, AddCartItemRequest request) {
-        User user = userRepository.findByEmail(email)
+        if (writeBehindCartStore.isEnabled()) {
+            requireProduct(request.getProductId());
+            writeBehindCartStore.add(email, request.getProductId(), 1);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> upsertCartItem(email, request));
+    }
+
+    private void upsertCartItem(String email, AddCartItemRequest request) {
+        Long userId = userRepository.findIdByEmail(email)
                 .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
-        Product product = productRepository.findById(request.getProductId())
-                .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
-
-        CartItem existingItem = cartItemRepository.findByUserAndProduct(user, product)
-                .orElse(null);
-        if (existingItem != null) {
-            existingItem.setQuantity(existingItem.getQuantity() + 1);
-            cartItemRepository.save(existingItem);
-            log.info("장바구니 항목 수량 증가: user={}, productId={}", email, request.getProductId());
-        } else {
-            CartItem cartItem = new CartItem();
-            cartItem.setUser(user);
-            cartItem.setProduct(product);
-            cartItem.setQuantity(1);
-            cartItemRepository.save(cartItem);
-            log.info("장바구니 항목 추가: user={}, productId={}", email, request.getProductId());
+        try {
+            cartItemRepository.upsertAddQuantity(userId, request.getProductId(), 1);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("상품을 찾을 수 없습니다.");
         }
+        log.info("장바구니 항목 추가: user={}, productId={}", email, request.getProductId());
+    }
+
+    // 여러 줄을 한 트랜잭션에서 추가/수정/삭제하고 바뀐 장바구니를 돌려준다
+    public CartSummary applyBatch(String email, CartBatchRequest request) {
+        List<CartBatchRequest.Line> lines = request.getItems();
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("변경할 장바구니 항목이 없습니다.");
+        }
+        if (lines.size() > maxBatchLines) {
+            throw new IllegalArgumentException("한 번에 변경할 수 있는 항목은 최대 " + maxBatchLines + "개입니다.");
+        }
+
+        List<CartItemBatchRepository.Line> adds = new ArrayList<>();
+        List<CartItemBatchRepository.Line> sets = new ArrayList<>();
+        List<Long> removes = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (CartBatchRequest.Line line : lines) {
+            if (line.getProductId() == null) {
+                throw new IllegalArgumentException("상품 id가 누락되었습니다.");
+            }
+            // 같은 상품이 여러 번 오면 적용 순서가 모호하므로 거절
+            if (!seen.add(line.getProductId())) {
+                throw new IllegalArgumentException("같은 상품이 중복되었습니다: productId=" + line.getProductId());
+            }
+            CartBatchRequest.Action action = line.getAction() != null ? line.getAction() : CartBatchRequest.Action.ADD;
+            int quantity = line.getQuantity() != null ? line.getQuantity() : (action == CartBatchRequest.Action.ADD ? 1 : 0);
+            switch (action) {
+                case ADD -> {
+                    if (quantity <= 0) {
+                        throw new IllegalArgumentException("추가 수량은 1 이상이어야 합니다: productId=" + line.getProductId());
+                    }
+                    adds.add(new CartItemBatchRepository.Line(line.getProductId(), quantity));
+                }
+                case SET -> {
+                    if (quantity <= 0) {
+                        removes.add(line.getProductId());
+                    } else {
+                        sets.add(new CartItemBatchRepository.Line(line.getProductId(), quantity));
+                    }
+                }
+                case REMOVE -> removes.add(line.getProductId());
+            }
+        }
+
+        log.info("장바구니 일괄 변경: user={}, add={}, set={}, remove={}", email, adds.size(), sets.size(), removes.size());
+        if (writeBehindCartStore.isEnabled()) {
+            adds.forEach(line -> requireProduct(line.productId()));
+            sets.forEach(line -> requireProduct(line.productId()));
+            writeBehindCartStore.applyBatch(email, adds, sets, removes);
+            return new CartSummary(writeBehindCartStore.getLines(email));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Long userId = userRepository.findIdByEmail(email)
+                    .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
+            try {
+                cartItemBatchRepository.addAll(userId, adds);
+                cartItemBatchRepository.setAll(userId, sets);
+                cartItemBatchRepository.deleteAll(userId, removes);
+            } catch (DataIntegrityViolationException e) {
+                throw new IllegalArgumentException("존재하지 않는 상품이 포함되어 있습니다.");
+            }
+        });
+        return new CartSummary(cartItemRepository.findCartLinesByEmail(email));
     }
 
-    @Transactional(readOnly = true)
     public List<CartItemDTO> getCartItems(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
-        List<CartItem> cartItems = cartItemRepository.findByUser(user);
-        return cartItems.stream().map(item -> {
-            CartItemDTO dto = new CartItemDTO();
-            dto.setId(item.getId());
-            dto.setProductId(item.getProduct().getId());
-            dto.setName(item.getProduct().getName());
-            dto.setPrice(item.getProduct().getPrice());
-            dto.setImage(item.getProduct().getImage());
-            dto.setQuantity(item.getQuantity());
-            return dto;
-        }).collect(Collectors.toList());
+        if (writeBehindCartStore.isEnabled()) {
+            return writeBehindCartStore.getLines(email);
+        }
+        return cartItemRepository.findCartLinesByEmail(email);
+    }
+
+    public CartSummary getCartSummary(String email) {
+        return new CartSummary(getCartItems(email));
+    }
+
+    // write-behind 모드에서 결제 전에 호출해 메모리 변경분을 cart_items에 반영
+    public void flushPendingChanges(String email) {
+        writeBehindCartStore.flush(email);
+    }
+
+    // 결제 트랜잭션이 커밋된 뒤 호출. DB 줄은 이미 삭제됐으므로 메모리 장바구니만 맞춘다
+    public void onCheckedOut(String email, Map<Long, Integer> orderedQuantities) {
+        if (writeBehindCartStore.isEnabled()) {
+            writeBehindCartStore.removeProducts(email, orderedQuantities);
+        }
     }
 
-    @Transactional
-    public void updateCartItem(Long cartItemId, UpdateCartItemRequest request) {
+    public void updateCartItem(String email, Long cartItemId, UpdateCartItemRequest request) {
+        if (writeBehindCartStore.isEnabled()) {
+            writeBehindCartStore.updateQuantity(email, cartItemId, request.getQuantity() != null ? request.getQuantity() : 0);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> updateCartItem(cartItemId, request));
+    }
+
+    private void updateCartItem(Long cartItemId, UpdateCartItemRequest request) {
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new IllegalArgumentException("장바구니 항목을 찾을 수 없습니다."));
         cartItem.setQuantity(request.getQuantity());
@@ -79,11 +172,24 @@ public class CartService {
         log.info("장바구니 항목 수정: cartItemId={}, quantity={}", cartItemId, request.getQuantity());
     }
 
-    @Transactional
-    public void removeCartItem(Long cartItemId) {
+    public void removeCartItem(String email, Long cartItemId) {
+        if (writeBehindCartStore.isEnabled()) {
+            writeBehindCartStore.remove(email, cartItemId);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> removeCartItem(cartItemId));
+    }
+
+    private void removeCartItem(Long cartItemId) {
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new IllegalArgumentException("장바구니 항목을 찾을 수 없습니다."));
         cartItemRepository.delete(cartItem);
         log.info("장바구니 항목 삭제: cartItemId={}", cartItemId);
     }
+
+    private void requireProduct(Long productId) {
+        if (catalogCache.current().getById(productId) == null) {
+            throw new IllegalArgumentException("상품을 찾을 수 없습니다.");
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.company.baseballshop.service;
+
+import com.company.baseballshop.dto.ProductSummary;
+import com.company.baseballshop.model.Product;
+import com.company.baseballshop.model.ProductRatingSummary;
+import com.company.baseballshop.repository.ProductRatingSummaryRepository;
+import com.company.baseballshop.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// 상품 조회용 인메모리 카탈로그. 읽기는 DB 없이 스냅샷에서, 쓰기는 커밋 후 스냅샷 교체
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogCache {
+
+    private final ProductRepository productRepository;
+    private final ProductRatingSummaryRepository productRatingSummaryRepository;
+
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    // 다른 인스턴스에서 발생한 변경을 반영하기 위한 주기적 전체 재적재
+    @Scheduled(fixedDelayString = "${catalog.cache.refresh-interval-ms:300000}",
+            initialDelayString = "${catalog.cache.refresh-interval-ms:300000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot.get();
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot.get();
+                if (current == null) {
+                    current = reload();
+                }
+            }
+        }
+        return current;
+    }
+
+    public synchronized CatalogSnapshot reload() {
+        CatalogSnapshot loaded = CatalogSnapshot.of(versionSequence.incrementAndGet(), productRepository.findAllSummaries());
+        snapshot.set(loaded);
+        log.info("카탈로그 스냅샷 적재: version={}, products={}", loaded.getVersion(), loaded.getAll().size());
+        return loaded;
+    }
+
+    public void onProductSaved(Product product) {
+        ProductSummary summary = ProductSummary.from(product);
+        TransactionCallbacks.afterCommit(() -> swap(summary, null));
+    }
+
+    // 리뷰 변경으로 평점 집계가 바뀐 경우. 커밋 후 집계 행을 다시 읽어 해당 상품만 교체
+    public void onRatingChanged(Long productId) {
+        TransactionCallbacks.afterCommit(() -> swapRating(productId));
+    }
+
+    public void onProductDeleted(Long productId) {
+        TransactionCallbacks.afterCommit(() -> swap(null, productId));
+    }
+
+    private synchronized void swap(ProductSummary saved, Long deletedId) {
+        CatalogSnapshot current = snapshot.get();
+        if (current == null) {
+            return; // 아직 적재 전이면 최초 조회 시 DB에서 읽어온다
+        }
+        long version = versionSequence.incrementAndGet();
+        CatalogSnapshot next = saved != null
+                ? current.withProduct(version, saved)
+                : current.withoutProduct(version, deletedId);
+        snapshot.set(next);
+        log.debug("카탈로그 스냅샷 교체: version={}", version);
+    }
+
+    private void swapRating(Long productId) {
+        ProductRatingSummary rating = productRatingSummaryRepository.findById(productId).orElse(null);
+        int reviewCount = rating != null ? rating.getReviewCount() : 0;
+        long ratingSum = rating != null ? rating.getRatingSum() : 0L;
+        synchronized (this) {
+            CatalogSnapshot current = snapshot.get();
+            if (current == null) {
+                return;
+            }
+            CatalogSnapshot next = current.withRating(versionSequence.incrementAndGet(), productId, reviewCount, ratingSum);
+            if (next != null) {
+                snapshot.set(next);
+                log.debug("카탈로그 평점 교체: productId={}, version={}", productId, next.getVersion());
+            }
+        }
+    }
+}
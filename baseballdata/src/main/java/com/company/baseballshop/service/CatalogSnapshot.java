@@ -0,0 +1,195 @@
+package com.company.baseballshop.service;
+
+import com.company.baseballshop.dto.ProductFacets;
+import com.company.baseballshop.dto.ProductSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// 상품 카탈로그(목록용 요약 모델)의 불변 스냅샷. 변경 시에는 새 스냅샷을 만들어 통째로 교체한다 (copy-on-write)
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final List<ProductSummary> all;
+    private final Map<Long, ProductSummary> byId;
+    private final Map<String, List<ProductSummary>> byCategory;
+    private final Map<String, Map<String, List<ProductSummary>>> byCategoryAndBrand;
+    private final List<ProductSummary> discounted;
+    private final List<String> brands;
+    // 패싯 집계는 스냅샷 생성 시 함께 계산 (스냅샷이 바뀔 때만 재계산됨)
+    private final Map<String, ProductFacets> facetsByCategory;
+    private final ProductFacets allFacets;
+
+    private CatalogSnapshot(long version, Collection<ProductSummary> products) {
+        List<ProductSummary> sorted = new ArrayList<>(products);
+        sorted.sort(Comparator.comparing(ProductSummary::getId));
+
+        Map<Long, ProductSummary> idIndex = new LinkedHashMap<>();
+        Map<String, List<ProductSummary>> categoryIndex = new HashMap<>();
+        Map<String, Map<String, List<ProductSummary>>> categoryBrandIndex = new HashMap<>();
+        List<ProductSummary> discountedList = new ArrayList<>();
+        TreeSet<String> brandSet = new TreeSet<>();
+
+        for (ProductSummary product : sorted) {
+            idIndex.put(product.getId(), product);
+            categoryIndex.computeIfAbsent(product.getCategory(), k -> new ArrayList<>()).add(product);
+            if (product.getBrand() != null) {
+                categoryBrandIndex.computeIfAbsent(product.getCategory(), k -> new HashMap<>())
+                        .computeIfAbsent(product.getBrand(), k -> new ArrayList<>()).add(product);
+                brandSet.add(product.getBrand());
+            }
+            if (product.isDiscounted()) {
+                discountedList.add(product);
+            }
+        }
+
+        // 인덱스의 모든 리스트/맵을 읽기 전용으로 고정
+        Map<String, List<ProductSummary>> frozenCategory = new HashMap<>();
+        categoryIndex.forEach((category, list) -> frozenCategory.put(category, Collections.unmodifiableList(list)));
+        Map<String, Map<String, List<ProductSummary>>> frozenCategoryBrand = new HashMap<>();
+        categoryBrandIndex.forEach((category, brandMap) -> {
+            Map<String, List<ProductSummary>> frozenBrand = new HashMap<>();
+            brandMap.forEach((brand, list) -> frozenBrand.put(brand, Collections.unmodifiableList(list)));
+            frozenCategoryBrand.put(category, Collections.unmodifiableMap(frozenBrand));
+        });
+
+        this.version = version;
+        this.all = Collections.unmodifiableList(sorted);
+        this.byId = Collections.unmodifiableMap(idIndex);
+        this.byCategory = Collections.unmodifiableMap(frozenCategory);
+        this.byCategoryAndBrand = Collections.unmodifiableMap(frozenCategoryBrand);
+        this.discounted = Collections.unmodifiableList(discountedList);
+        this.brands = List.copyOf(brandSet);
+
+        Map<String, ProductFacets> facets = new HashMap<>();
+        categoryIndex.forEach((category, list) -> facets.put(category, ProductFacets.from(category, list)));
+        this.facetsByCategory = Collections.unmodifiableMap(facets);
+        this.allFacets = ProductFacets.from(null, sorted);
+    }
+
+    // 평점 갱신용: 평점은 인덱스 키나 패싯에 쓰이지 않으므로 해당 상품을 담은 컬렉션만 복사해 교체하고 나머지는 공유한다
+    private CatalogSnapshot(CatalogSnapshot base, long version, ProductSummary updated) {
+        Map<Long, ProductSummary> idIndex = new LinkedHashMap<>(base.byId);
+        idIndex.put(updated.getId(), updated);
+
+        Map<String, List<ProductSummary>> categoryIndex = new HashMap<>(base.byCategory);
+        categoryIndex.computeIfPresent(updated.getCategory(), (category, list) -> replaced(list, updated));
+        Map<String, Map<String, List<ProductSummary>>> categoryBrandIndex = new HashMap<>(base.byCategoryAndBrand);
+        if (updated.getBrand() != null) {
+            categoryBrandIndex.computeIfPresent(updated.getCategory(), (category, brandMap) -> {
+                Map<String, List<ProductSummary>> brandCopy = new HashMap<>(brandMap);
+                brandCopy.computeIfPresent(updated.getBrand(), (brand, list) -> replaced(list, updated));
+                return Collections.unmodifiableMap(brandCopy);
+            });
+        }
+
+        this.version = version;
+        this.all = replaced(base.all, updated);
+        this.byId = Collections.unmodifiableMap(idIndex);
+        this.byCategory = Collections.unmodifiableMap(categoryIndex);
+        this.byCategoryAndBrand = Collections.unmodifiableMap(categoryBrandIndex);
+        this.discounted = updated.isDiscounted() ? replaced(base.discounted, updated) : base.discounted;
+        this.brands = base.brands;
+        this.facetsByCategory = base.facetsByCategory;
+        this.allFacets = base.allFacets;
+    }
+
+    // 모든 목록이 id 순이므로 이진 탐색으로 찾아 그 자리만 바꾼 사본을 만든다
+    private static List<ProductSummary> replaced(List<ProductSummary> list, ProductSummary updated) {
+        int low = 0;
+        int high = list.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = list.get(mid).getId().compareTo(updated.getId());
+            if (cmp == 0) {
+                List<ProductSummary> copy = new ArrayList<>(list);
+                copy.set(mid, updated);
+                return Collections.unmodifiableList(copy);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return list;
+    }
+
+    public static CatalogSnapshot of(long version, Collection<ProductSummary> products) {
+        return new CatalogSnapshot(version, products);
+    }
+
+    // 상품 추가/수정 반영한 새 스냅샷. 상품 수정은 평점 집계를 바꾸지 않으므로 기존 값을 이어받는다
+    public CatalogSnapshot withProduct(long newVersion, ProductSummary product) {
+        Map<Long, ProductSummary> copy = new HashMap<>(byId);
+        ProductSummary previous = copy.get(product.getId());
+        copy.put(product.getId(), previous != null
+                ? product.withRating(previous.getReviewCount(), previous.getRatingSum())
+                : product);
+        return new CatalogSnapshot(newVersion, copy.values());
+    }
+
+    // 평점 집계만 바뀐 새 스냅샷. 스냅샷에 없는 상품이면 null
+    public CatalogSnapshot withRating(long newVersion, Long productId, int reviewCount, long ratingSum) {
+        ProductSummary previous = byId.get(productId);
+        if (previous == null) {
+            return null;
+        }
+        return new CatalogSnapshot(this, newVersion, previous.withRating(reviewCount, ratingSum));
+    }
+
+    // 상품 삭제 반영한 새 스냅샷
+    public CatalogSnapshot withoutProduct(long newVersion, Long productId) {
+        Map<Long, ProductSummary> copy = new HashMap<>(byId);
+        copy.remove(productId);
+        return new CatalogSnapshot(newVersion, copy.values());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<ProductSummary> getAll() {
+        return all;
+    }
+
+    public ProductSummary getById(Long id) {
+        return byId.get(id);
+    }
+
+    public List<ProductSummary> getByCategory(String category) {
+        return byCategory.getOrDefault(category, Collections.emptyList());
+    }
+
+    public List<ProductSummary> getByCategoryAndBrand(String category, String brand) {
+        Map<String, List<ProductSummary>> brandMap = byCategoryAndBrand.get(category);
+        if (brandMap == null) {
+            return Collections.emptyList();
+        }
+        return brandMap.getOrDefault(brand, Collections.emptyList());
+    }
+
+    public List<ProductSummary> getDiscounted() {
+        return discounted;
+    }
+
+    public List<String> getBrands() {
+        return brands;
+    }
+
+    // category가 null이면 전체 카탈로그 기준 집계
+    public ProductFacets getFacets(String category) {
+        if (category == null) {
+            return allFacets;
+        }
+        ProductFacets facets = facetsByCategory.get(category);
+        return facets != null ? facets : ProductFacets.from(category, Collections.emptyList());
+    }
+}
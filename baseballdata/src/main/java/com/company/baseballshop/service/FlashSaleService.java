@@ -0,0 +1,342 @@
+package com.company.baseballshop.service;
+
+import com.company.baseballshop.model.Product;
+import com.company.baseballshop.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// 한정판 상품용 플래시 세일 모드.
+// 시작할 때 products.stock 전체를 여러 샤드 카운터로 옮겨(DB 재고는 0) CAS로 차감하고, 종료할 때 남은 재고를 DB로 돌려준다.
+// 카운터가 인스턴스 메모리에 있으므로 해당 상품의 결제 요청은 한 인스턴스로 모아야 한다.
+@Slf4j
+@Service
+public class FlashSaleService {
+
+    public enum ClaimResult { CLAIMED, SOLD_OUT, NOT_ACTIVE }
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, FlashSale> activeSales = new ConcurrentHashMap<>();
+
+    @Value("${flash-sale.admission-timeout-ms:2000}")
+    private long admissionTimeoutMs;
+
+    // 종료 시 남은 재고 반환을 시도하는 횟수. 모두 실패하면 종료를 취소하고 세일을 계속 연다
+    @Value("${flash-sale.return-attempts:3}")
+    private int returnAttempts;
+
+    public FlashSaleService(ProductRepository productRepository, TransactionTemplate transactionTemplate) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    static final class FlashSale {
+        private static final int CLOSED = 1 << 30;
+
+        private final Long productId;
+        private final AtomicIntegerArray shards;
+        private final AtomicInteger inFlight = new AtomicInteger();     // 진행 중인 차감/반환 수 + 종료 비트
+        private final Semaphore admission;                              // 공정(FIFO) 입장 대기열
+        private volatile CountDownLatch drained = new CountDownLatch(1); // 종료 후 마지막 차감/반환이 끝나면 열린다
+
+        private FlashSale(Long productId, int stock, int shardCount, int maxConcurrentCheckouts) {
+            this.productId = productId;
+            this.shards = new AtomicIntegerArray(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                shards.set(i, stock / shardCount + (i < stock % shardCount ? 1 : 0));
+            }
+            this.admission = new Semaphore(maxConcurrentCheckouts, true);
+        }
+
+        // 종료 비트와 진행 수를 한 값으로 CAS해, 종료가 시작된 뒤에는 새 차감/반환이 들어오지 못하게 한다
+        private boolean enter() {
+            while (true) {
+                int current = inFlight.get();
+                if ((current & CLOSED) != 0) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void leave() {
+            if (inFlight.decrementAndGet() == CLOSED) {
+                drained.countDown();
+            }
+        }
+
+        private void close() {
+            drained = new CountDownLatch(1);
+            if (inFlight.getAndUpdate(current -> current | CLOSED) == 0) {
+                drained.countDown();
+            }
+        }
+
+        private void reopen() {
+            inFlight.updateAndGet(current -> current & ~CLOSED);
+        }
+
+        private int remaining() {
+            int sum = 0;
+            for (int i = 0; i < shards.length(); i++) {
+                sum += shards.get(i);
+            }
+            return sum;
+        }
+
+        // 임의의 샤드부터 돌며 수량이 충분한 샤드에서 CAS 차감
+        private boolean claimFromShards(int quantity) {
+            int count = shards.length();
+            int start = ThreadLocalRandom.current().nextInt(count);
+            for (int i = 0; i < count; i++) {
+                int index = (start + i) % count;
+                while (true) {
+                    int current = shards.get(index);
+                    if (current < quantity) {
+                        break;
+                    }
+                    if (shards.compareAndSet(index, current, current - quantity)) {
+                        return true;
+                    }
+                }
+            }
+            return claimAcrossShards(quantity);
+        }
+
+        // 한 샤드에 수량이 모자라면 여러 샤드에서 나눠 가져오고, 부족하면 가져온 만큼 되돌린다
+        private boolean claimAcrossShards(int quantity) {
+            int[] taken = new int[shards.length()];
+            int needed = quantity;
+            for (int i = 0; i < shards.length() && needed > 0; i++) {
+                while (true) {
+                    int current = shards.get(i);
+                    int take = Math.min(current, needed);
+                    if (take == 0) {
+                        break;
+                    }
+                    if (shards.compareAndSet(i, current, current - take)) {
+                        taken[i] = take;
+                        needed -= take;
+                        break;
+                    }
+                }
+            }
+            if (needed == 0) {
+                return true;
+            }
+            for (int i = 0; i < taken.length; i++) {
+                if (taken[i] > 0) {
+                    shards.addAndGet(i, taken[i]);
+                }
+            }
+            return false;
+        }
+    }
+
+    public class Admission implements AutoCloseable {
+        private final List<Semaphore> acquired;
+
+        private Admission(List<Semaphore> acquired) {
+            this.acquired = acquired;
+        }
+
+        @Override
+        public void close() {
+            acquired.forEach(Semaphore::release);
+        }
+    }
+
+    // 상품 행을 잠근 채 재고 전체를 카운터로 옮긴다. 활성화 직전에 DB 경로로 들어온 예약이 늦게 차감하더라도
+    // DB 재고가 0이라 조건부 차감에서 막히므로, 같은 재고를 카운터와 DB가 나눠 파는 일이 없다
+    public synchronized void activate(Long productId, int shardCount, int maxConcurrentCheckouts) {
+        if (shardCount <= 0 || maxConcurrentCheckouts <= 0) {
+            throw new IllegalArgumentException("샤드 수와 동시 결제 수는 1 이상이어야 합니다.");
+        }
+        if (activeSales.containsKey(productId)) {
+            throw new IllegalArgumentException("이미 플래시 세일 중인 상품입니다.");
+        }
+        Integer stock = transactionTemplate.execute(status -> {
+            Product product = productRepository.findByIdForUpdate(productId)
+                    .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
+            int moved = Math.max(product.getStock(), 0);
+            if (moved > 0) {
+                productRepository.decrementStockUnchecked(productId, moved);
+            }
+            return moved;
+        });
+        activeSales.put(productId, new FlashSale(productId, stock, shardCount, maxConcurrentCheckouts));
+        log.info("플래시 세일 시작: productId={}, stock={}, shards={}", productId, stock, shardCount);
+    }
+
+    // 종료 시 진행 중인 차감이 끝나기를 기다린 뒤 남은 재고를 DB로 돌려준다
+    // 반환이 끝날 때까지 세일을 목록에 남겨 두어, 그 사이 같은 상품을 다시 여는 일이 없게 한다
+    public void deactivate(Long productId) {
+        FlashSale sale = activeSales.get(productId);
+        if (sale == null) {
+            throw new IllegalArgumentException("플래시 세일 중인 상품이 아닙니다.");
+        }
+        synchronized (sale) {
+            if (activeSales.get(productId) != sale) {
+                throw new IllegalArgumentException("플래시 세일 중인 상품이 아닙니다.");
+            }
+            sale.close();
+            try {
+                awaitDrained(sale);
+                returnRemaining(sale);
+            } catch (RuntimeException e) {
+                // 남은 재고를 잃지 않도록 세일을 다시 연다 (관리자가 다시 종료를 요청한다)
+                sale.reopen();
+                throw e;
+            }
+            activeSales.remove(productId, sale);
+        }
+        log.info("플래시 세일 종료: productId={}, 미판매 재고={}", productId, sale.remaining());
+    }
+
+    private void awaitDrained(FlashSale sale) {
+        try {
+            if (!sale.drained.await(admissionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "진행 중인 주문이 끝나지 않아 플래시 세일을 종료하지 못했습니다.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "플래시 세일 종료가 중단되었습니다.");
+        }
+    }
+
+    private void returnRemaining(FlashSale sale) {
+        int remaining = sale.remaining();
+        for (int attempt = 1; attempt <= returnAttempts; attempt++) {
+            try {
+                if (remaining > 0) {
+                    transactionTemplate.executeWithoutResult(
+                            status -> productRepository.incrementStock(sale.productId, remaining));
+                }
+                return;
+            } catch (Exception e) {
+                log.error("플래시 세일 재고 반환 실패: productId={}, remaining={}, attempt={}, error={}",
+                        sale.productId, remaining, attempt, e.getMessage());
+            }
+            try {
+                Thread.sleep(100L * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "플래시 세일 재고를 DB로 돌려주지 못해 종료를 취소했습니다: productId=" + sale.productId);
+    }
+
+    // 정상 종료 시 진행 중인 세일의 남은 재고를 DB로 돌려준다
+    @PreDestroy
+    public void shutdown() {
+        for (Long productId : List.copyOf(activeSales.keySet())) {
+            try {
+                deactivate(productId);
+            } catch (RuntimeException e) {
+                log.error("종료 중 플래시 세일 정리 실패: productId={}, error={}", productId, e.getMessage());
+            }
+        }
+    }
+
+    public boolean isActive(Long productId) {
+        return activeSales.containsKey(productId);
+    }
+
+    public Map<String, Object> status(Long productId) {
+        FlashSale sale = activeSales.get(productId);
+        if (sale == null) {
+            return Map.of("productId", productId, "active", false);
+        }
+        return Map.of(
+                "productId", productId,
+                "active", true,
+                "remaining", sale.remaining(),
+                "shards", sale.shards.length(),
+                "queued", sale.admission.getQueueLength());
+    }
+
+    public ClaimResult tryClaim(Long productId, int quantity) {
+        FlashSale sale = activeSales.get(productId);
+        if (sale == null) {
+            return ClaimResult.NOT_ACTIVE;
+        }
+        // 종료 중에는 남은 재고를 DB로 돌려주는 중이므로 받지 않는다
+        if (!sale.enter()) {
+            return ClaimResult.SOLD_OUT;
+        }
+        try {
+            if (!sale.claimFromShards(quantity)) {
+                return ClaimResult.SOLD_OUT;
+            }
+            return ClaimResult.CLAIMED;
+        } finally {
+            sale.leave();
+        }
+    }
+
+    // 플래시 세일 중이면 카운터로 되돌리고 true. 이미 종료됐으면 false (호출 측에서 DB 재고를 복구)
+    public boolean release(Long productId, int quantity) {
+        FlashSale sale = activeSales.get(productId);
+        if (sale == null) {
+            return false;
+        }
+        if (!sale.enter()) {
+            return false;
+        }
+        try {
+            int index = ThreadLocalRandom.current().nextInt(sale.shards.length());
+            sale.shards.addAndGet(index, quantity);
+            return true;
+        } finally {
+            sale.leave();
+        }
+    }
+
+    // 결제 요청 앞단의 공정 대기열. 플래시 세일 상품이 없으면 바로 통과
+    public Admission admit(Collection<Long> productIds) {
+        List<Semaphore> acquired = new ArrayList<>();
+        try {
+            // 상품 id 순으로 획득해 여러 플래시 상품을 담은 주문끼리 서로 막지 않게 한다
+            for (Long productId : new TreeSet<>(productIds)) {
+                FlashSale sale = activeSales.get(productId);
+                if (sale == null) {
+                    continue;
+                }
+                if (!sale.admission.tryAcquire(admissionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "주문이 몰리고 있습니다. 잠시 후 다시 시도해주세요.");
+                }
+                acquired.add(sale.admission);
+            }
+            return new Admission(acquired);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired.forEach(Semaphore::release);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "주문 처리가 중단되었습니다.");
+        } catch (RuntimeException e) {
+            acquired.forEach(Semaphore::release);
+            throw e;
+        }
+    }
+}
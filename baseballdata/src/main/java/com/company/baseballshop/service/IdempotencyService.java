@@ -0,0 +1,223 @@
+package com.company.baseballshop.service;
+
+import com.company.baseballshop.dto.PaymentResponse;
+import com.company.baseballshop.model.IdempotencyRecord;
+import com.company.baseballshop.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// 결제 준비/장바구니 결제 요청의 Idempotency-Key 처리
+// 1) 메모리 LRU(TTL) -> 2) 같은 키의 진행 중 요청에 합류 -> 3) DB 기록 재생 -> 4) 실제 주문 생성
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CachedResponse> cache;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${payment.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${payment.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${payment.idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public record Key(String scope, String requestHash) {}
+
+    private record CachedResponse(String requestHash, String body, long expiresAtMillis) {}
+
+    private record InFlight(String requestHash, CompletableFuture<PaymentResponse> future) {}
+
+    public Key key(String username, String idempotencyKey, Object request) {
+        if (idempotencyKey.length() > 200) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key is too long");
+        }
+        return new Key((username != null ? username : "anonymous") + ":" + idempotencyKey, hash(request));
+    }
+
+    public PaymentResponse execute(Key key, Supplier<PaymentResponse> action) {
+        PaymentResponse cached = fromCache(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        InFlight mine = new InFlight(key.requestHash(), new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key.scope(), mine);
+        if (running != null) {
+            checkSameRequest(key, running.requestHash());
+            return await(running.future());
+        }
+
+        try {
+            PaymentResponse response = replayStored(key).orElseGet(() -> runOnce(key, action));
+            mine.future().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.future().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key.scope(), mine);
+        }
+    }
+
+    // 주문 트랜잭션 맨 앞에서 호출. 다른 인스턴스가 같은 키로 처리 중이면 유니크 키에서 대기/실패한다
+    public IdempotencyRecord claim(Key key) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setScopeKey(key.scope());
+        record.setRequestHash(key.requestHash());
+        record.setExpiresAt(LocalDateTime.now().plusHours(ttlHours));
+        return idempotencyRecordRepository.saveAndFlush(record);
+    }
+
+    // 같은 트랜잭션 안에서 응답을 기록 (커밋 시 함께 반영)
+    public void complete(IdempotencyRecord record, PaymentResponse response) {
+        record.setOrderId(response.getOrderId() != null ? Long.valueOf(response.getOrderId()) : null);
+        record.setResponseBody(write(response));
+    }
+
+    @Scheduled(fixedDelayString = "${payment.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("만료된 Idempotency-Key 삭제: {}건", deleted);
+        }
+    }
+
+    private PaymentResponse runOnce(Key key, Supplier<PaymentResponse> action) {
+        try {
+            PaymentResponse response = action.get();
+            remember(key, write(response));
+            return response;
+        } catch (DataIntegrityViolationException e) {
+            // 다른 인스턴스가 같은 키로 먼저 커밋한 경우
+            return replayStored(key).orElseThrow(() -> e);
+        }
+    }
+
+    private PaymentResponse fromCache(Key key) {
+        CachedResponse entry;
+        synchronized (cache) {
+            entry = cache.get(key.scope());
+            if (entry != null && entry.expiresAtMillis() < System.currentTimeMillis()) {
+                cache.remove(key.scope());
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            return null;
+        }
+        checkSameRequest(key, entry.requestHash());
+        return read(entry.body());
+    }
+
+    private Optional<PaymentResponse> replayStored(Key key) {
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findByScopeKey(key.scope());
+        if (stored.isEmpty() || stored.get().getResponseBody() == null) {
+            return Optional.empty();
+        }
+        IdempotencyRecord record = stored.get();
+        if (record.getExpiresAt().isBefore(LocalDateTime.now())) {
+            idempotencyRecordRepository.delete(record);
+            return Optional.empty();
+        }
+        checkSameRequest(key, record.getRequestHash());
+        remember(key, record.getResponseBody());
+        log.info("Idempotency-Key 재요청: 저장된 응답 반환 orderId={}", record.getOrderId());
+        return Optional.of(read(record.getResponseBody()));
+    }
+
+    private void remember(Key key, String body) {
+        long expiresAt = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(ttlHours);
+        synchronized (cache) {
+            cache.put(key.scope(), new CachedResponse(key.requestHash(), body, expiresAt));
+        }
+    }
+
+    private PaymentResponse await(CompletableFuture<PaymentResponse> future) {
+        try {
+            return copy(future.get(waitTimeoutMs, TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with the same Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for the original request");
+        }
+    }
+
+    private void checkSameRequest(Key key, String storedHash) {
+        if (!key.requestHash().equals(storedHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private PaymentResponse copy(PaymentResponse response) {
+        return read(write(response));
+    }
+
+    private String write(PaymentResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize payment response", e);
+        }
+    }
+
+    private PaymentResponse read(String body) {
+        try {
+            return objectMapper.readValue(body, PaymentResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize payment response", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] body = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Failed to hash payment request", e);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.company.baseballshop.service;
+
+import com.company.baseballshop.model.ImageVariants;
+import com.company.baseballshop.repository.ProductRepository;
+import com.company.baseballshop.repository.ReviewRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// 업로드된 원본 이미지로 목록/상세용 리사이즈 변형을 만드는 비동기 파이프라인.
+// 요청 스레드는 원본 저장까지만 하고, 변형은 전용 워커 풀이 S3에서 원본을 다시 읽어 한 번 디코딩한 뒤 만든다
+@Slf4j
+@Service
+public class ImagePipeline {
+
+    // 큰 변형부터 만들고 다음 변형은 직전 결과에서 줄인다
+    enum Variant {
+        DETAIL("detail", 1080),
+        LIST("list", 480),
+        THUMBNAIL("thumbnail", 200);
+
+        private final String key;
+        private final int width;
+
+        Variant(String key, int width) {
+            this.key = key;
+            this.width = width;
+        }
+    }
+
+    private interface VariantsApplier {
+        void apply(ImageVariants variants);
+    }
+
+    private final S3Service s3Service;
+    private final ProductRepository productRepository;
+    private final ReviewRepository reviewRepository;
+    private final CatalogCache catalogCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${image.pipeline.threads:2}")
+    private int threads;
+
+    @Value("${image.pipeline.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${image.pipeline.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    // 이보다 픽셀 수가 큰 원본은 디코딩하지 않는다 (압축 폭탄 방지)
+    @Value("${image.pipeline.max-source-pixels:50000000}")
+    private long maxSourcePixels;
+
+    private ThreadPoolExecutor executor;
+
+    public ImagePipeline(S3Service s3Service, ProductRepository productRepository, ReviewRepository reviewRepository,
+                         CatalogCache catalogCache, TransactionTemplate transactionTemplate) {
+        this.s3Service = s3Service;
+        this.productRepository = productRepository;
+        this.reviewRepository = reviewRepository;
+        this.catalogCache = catalogCache;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        // ImageIO 기본값은 스트림을 임시 파일에 캐시하므로 메모리 캐시로 바꾼다 (원본 최대 5MB)
+        ImageIO.setUseCache(false);
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "image-pipeline-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("이미지 파이프라인 종료 대기 초과: 남은 작업={}", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+
+    // 트랜잭션 커밋 후 변형 생성을 예약. 외부 URL(우리 버킷이 아닌 이미지)은 처리하지 않는다
+    public void submitProduct(Long productId, String imageUrl) {
+        S3Service.ObjectLocation location = s3Service.locate(imageUrl);
+        if (location == null) {
+            return;
+        }
+        // 내용 해시 키라 같은 사진을 쓰는 다른 상품에 이미 변형이 있으면 다시 만들지 않는다
+        TransactionCallbacks.afterCommit(() -> enqueue(location,
+                () -> productRepository.findImageVariantsByImage(imageUrl, PageRequest.of(0, 1)).stream().findFirst().orElse(null),
+                variants -> transactionTemplate.executeWithoutResult(status -> {
+                    int updated = productRepository.updateImageVariants(productId, imageUrl,
+                            variants.getThumbnailUrl(), variants.getListUrl(), variants.getDetailUrl());
+                    if (updated > 0) {
+                        productRepository.findById(productId).ifPresent(catalogCache::onProductSaved);
+                    }
+                })));
+    }
+
+    public void submitReview(Long reviewId, String imageUrl) {
+        S3Service.ObjectLocation location = s3Service.locate(imageUrl);
+        if (location == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> enqueue(location, () -> null, variants ->
+                transactionTemplate.executeWithoutResult(status -> reviewRepository.updateImageVariants(reviewId, imageUrl,
+                        variants.getThumbnailUrl(), variants.getListUrl(), variants.getDetailUrl()))));
+    }
+
+    private void enqueue(S3Service.ObjectLocation location, Supplier<ImageVariants> existing, VariantsApplier applier) {
+        try {
+            executor.execute(() -> process(location, existing, applier));
+        } catch (RejectedExecutionException e) {
+            // 변형이 없어도 원본 URL로 동작하므로 요청을 막지 않고 건너뛴다
+            log.warn("이미지 파이프라인 큐가 가득 차 변형 생성을 건너뜀: key={}", location.key());
+        }
+    }
+
+    private void process(S3Service.ObjectLocation location, Supplier<ImageVariants> existing, VariantsApplier applier) {
+        long started = System.nanoTime();
+        try {
+            ImageVariants variants = existing.get();
+            if (variants == null) {
+                variants = render(location);
+            }
+            if (variants != null) {
+                applier.apply(variants);
+                log.info("이미지 변형 생성 완료: key={}, elapsedMs={}", location.key(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+        } catch (Exception e) {
+            log.warn("이미지 변형 생성 실패: key={}, error={}", location.key(), e.getMessage());
+        }
+    }
+
+    private ImageVariants render(S3Service.ObjectLocation location) throws IOException {
+        BufferedImage current = decode(location);
+        if (current == null) {
+            return null;
+        }
+        String thumbnailUrl = null;
+        String listUrl = null;
+        String detailUrl = null;
+        for (Variant variant : Variant.values()) {
+            current = downscale(current, variant.width);
+            String url = s3Service.putVariant(location, variant.key, encodeJpeg(current), "image/jpeg");
+            switch (variant) {
+                case DETAIL -> detailUrl = url;
+                case LIST -> listUrl = url;
+                case THUMBNAIL -> thumbnailUrl = url;
+            }
+        }
+        return new ImageVariants(thumbnailUrl, listUrl, detailUrl);
+    }
+
+    // 헤더로 크기를 먼저 확인하고, 상세 변형보다 훨씬 큰 원본은 디코딩 단계에서 서브샘플링해 읽는다
+    private BufferedImage decode(S3Service.ObjectLocation location) throws IOException {
+        try (InputStream in = s3Service.openObject(location);
+             ImageInputStream imageIn = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageIn);
+            if (!readers.hasNext()) {
+                log.warn("지원하지 않는 이미지 형식: key={}", location.key());
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageIn, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    log.warn("원본 이미지가 너무 큼: key={}, {}x{}", location.key(), width, height);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, width / (Variant.DETAIL.width * 2));
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                return toRgb(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // JPEG은 알파 채널이 없으므로 투명 영역은 흰 배경으로 채운다
+    private BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    // 절반씩 단계적으로 줄여 한 번에 크게 줄일 때 생기는 계단 현상을 피한다. 이미 작으면 그대로 둔다
+    private BufferedImage downscale(BufferedImage source, int targetWidth) {
+        if (source.getWidth() <= targetWidth) {
+            return source;
+        }
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * (double) targetWidth / source.getWidth()));
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        while (width / 2 >= targetWidth) {
+            width /= 2;
+            height = Math.max(1, height / 2);
+            current = resize(current, width, height);
+        }
+        if (width != targetWidth) {
+            current = resize(current, targetWidth, targetHeight);
+        }
+        return current;
+    }
+
+    private BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return resized;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,179 @@
+package com.company.baseballshop.service;
+
+import com.company.baseballshop.dto.PortOnePayment;
+import com.company.baseballshop.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 결제 검증 요청이 오지 않아 PENDING으로 남은 주문 정산
+// 결제 키가 있는 주문은 예약 만료 스윕이 건드리지 않으므로, 포트원 결과로 상태를 정하는 곳은 여기뿐이다
+// 상태 인덱스를 id 키셋으로 배치 조회 -> 포트원 조회(병렬 제한) -> 주문별 짧은 트랜잭션으로 상태 전이 + 재고 정리
+@Slf4j
+@Service
+public class OrderReconciliationService {
+
+    private final OrderRepository orderRepository;
+    private final StockReservationService stockReservationService;
+    private final PortOneClient portOneClient;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${order.reconcile.batch-size:500}")
+    private int batchSize;
+
+    @Value("${order.reconcile.parallelism:8}")
+    private int parallelism;
+
+    // 이 시간보다 오래된 PENDING 주문만 정산 대상 (결제창이 열려 있을 수 있는 주문은 건드리지 않는다)
+    @Value("${order.reconcile.stale-after-minutes:15}")
+    private long staleAfterMinutes;
+
+    // 포트원에서 확정되지 않았거나 paymentKey가 없는 주문을 만료시키는 기준
+    @Value("${order.reconcile.expire-after-minutes:60}")
+    private long expireAfterMinutes;
+
+    public OrderReconciliationService(OrderRepository orderRepository,
+                                      StockReservationService stockReservationService,
+                                      PortOneClient portOneClient,
+                                      TransactionTemplate transactionTemplate) {
+        this.orderRepository = orderRepository;
+        this.stockReservationService = stockReservationService;
+        this.portOneClient = portOneClient;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    private record PendingOrder(Long id, String paymentKey, Integer amount, LocalDateTime createdAt) {}
+
+    @Scheduled(fixedDelayString = "${order.reconcile.interval-ms:300000}")
+    public void reconcile() {
+        // 이전 실행이 길어져도 겹치지 않게 한다
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            reconcileAll();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void reconcileAll() {
+        LocalDateTime staleBefore = LocalDateTime.now().minusMinutes(staleAfterMinutes);
+        LocalDateTime expireBefore = LocalDateTime.now().minusMinutes(expireAfterMinutes);
+        AtomicInteger changed = new AtomicInteger();
+        long scanned = 0;
+        long afterId = 0L;
+
+        while (true) {
+            List<Object[]> rows = orderRepository.findIdsByStatusAfter("PENDING", afterId, PageRequest.of(0, batchSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+            scanned += rows.size();
+
+            List<PendingOrder> stale = rows.stream()
+                    .map(row -> new PendingOrder((Long) row[0], (String) row[1], (Integer) row[2], (LocalDateTime) row[3]))
+                    .filter(order -> order.createdAt() == null || order.createdAt().isBefore(staleBefore))
+                    .toList();
+
+            Flux.fromIterable(stale)
+                    .flatMap(order -> reconcileOne(order, expireBefore)
+                            .subscribeOn(Schedulers.boundedElastic()), parallelism)
+                    .filter(Boolean::booleanValue)
+                    .doOnNext(done -> changed.incrementAndGet())
+                    .blockLast(Duration.ofMinutes(10));
+
+            if (rows.size() < batchSize) {
+                break;
+            }
+            // 서킷이 열리면 남은 배치는 다음 실행으로 미룬다
+            if (!portOneClient.isAvailable()) {
+                log.warn("포트원 서킷 열림: 주문 정산 중단 afterId={}", afterId);
+                break;
+            }
+        }
+        if (changed.get() > 0) {
+            log.info("PENDING 주문 정산 완료: scanned={}, changed={}", scanned, changed.get());
+        }
+    }
+
+    private Mono<Boolean> reconcileOne(PendingOrder order, LocalDateTime expireBefore) {
+        boolean expirable = order.createdAt() == null || order.createdAt().isBefore(expireBefore);
+        if (order.paymentKey() == null) {
+            return Mono.fromCallable(() -> expirable && finish(order.id(), "EXPIRED"));
+        }
+        return portOneClient.getPayment(order.paymentKey())
+                .publishOn(Schedulers.boundedElastic())
+                .map(payment -> apply(order, payment, expirable))
+                .onErrorResume(e -> {
+                    // 포트원에 없는 결제 키(결제창을 열지 않았거나 잘못 등록된 키)는 만료 기준이 지나면 만료시킨다
+                    if (expirable && e instanceof ResponseStatusException status
+                            && status.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+                        return Mono.fromCallable(() -> finish(order.id(), "EXPIRED"))
+                                .subscribeOn(Schedulers.boundedElastic());
+                    }
+                    log.warn("주문 정산 중 포트원 조회 실패: orderId={}, error={}", order.id(), e.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    private boolean apply(PendingOrder order, PortOnePayment payment, boolean expirable) {
+        switch (payment.getStatus()) {
+            case "PAID":
+                if (!payment.getAmount().equals(order.amount())) {
+                    log.warn("정산: 결제 금액 불일치 orderId={}, expected={}, actual={}", order.id(), order.amount(), payment.getAmount());
+                    return finish(order.id(), "FAILED");
+                }
+                return complete(order.id());
+            case "FAILED":
+            case "CANCELLED":
+                return finish(order.id(), "FAILED");
+            default:
+                // READY, PENDING 등 아직 결제가 끝나지 않은 상태
+                return expirable && finish(order.id(), "EXPIRED");
+        }
+    }
+
+    // 결제 완료: 예약을 확정하고 COMPLETED로. 예약 없는(이전 방식) 주문도 상태만 바꾼다
+    private boolean complete(Long orderId) {
+        Boolean done = transactionTemplate.execute(status -> {
+            if (orderRepository.transitionStatus(orderId, "PENDING", "COMPLETED") != 1) {
+                return false;
+            }
+            stockReservationService.commit(orderId);
+            return true;
+        });
+        return Boolean.TRUE.equals(done);
+    }
+
+    // 실패/만료: 상태를 먼저 바꾼 쪽만 재고를 돌려준다 (동시에 도착한 검증 요청과 경합해도 한 번만 처리)
+    private boolean finish(Long orderId, String to) {
+        Boolean done = transactionTemplate.execute(status -> {
+            if (orderRepository.transitionStatus(orderId, "PENDING", to) != 1) {
+                return false;
+            }
+            stockReservationService.release(orderId);
+            return true;
+        });
+        if (Boolean.TRUE.equals(done)) {
+            log.info("정산: 주문 상태 변경 orderId={}, status={}", orderId, to);
+        }
+        return Boolean.TRUE.equals(done);
+    }
+}
@@ -2,18 +2,28 @@ package com.company.baseballshop.service;
 
 import com.company.baseballshop.dto.CartItemDTO;
 import com.company.baseballshop.dto.OrderDTO;
+import com.company.baseballshop.dto.OrderPageResponse;
+import com.company.baseballshop.dto.OrderSummary;
 import com.company.baseballshop.model.Order;
-import com.company.baseballshop.model.OrderItem;
-import com.company.baseballshop.model.Product;
 import com.company.baseballshop.repository.OrderItemRepository;
 import com.company.baseballshop.repository.OrderRepository;
+import com.company.baseballshop.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +35,16 @@ public class OrderService {
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${order.page.default-size:10}")
+    private int defaultPageSize;
+
+    @Value("${order.page.max-size:50}")
+    private int maxPageSize;
+
+    @Transactional(readOnly = true)
     public OrderDTO getOrderById(Long id, String username) {
         // Order 조회, 없으면 404 예외 발생
         Order order = orderRepository.findById(id)
@@ -35,13 +55,18 @@ public class OrderService {
             throw new AccessDeniedException("You do not have permission to access this order");
         }
 
-        // OrderItem 조회
-        List<OrderItem> orderItems = orderItemRepository.findByOrderId(id);
-        List<CartItemDTO> cartItems = orderItems.stream().map(item -> {
-            Product product = item.getProduct();
-            return new CartItemDTO(
-            );
-        }).collect(Collectors.toList());
+        // OrderItem 조회 (상품 정보까지 한 번에)
+        List<CartItemDTO> cartItems = orderItemRepository.findLinesByOrderIds(List.of(id)).stream()
+                .map(row -> {
+                    CartItemDTO item = new CartItemDTO();
+                    item.setProductId((Long) row[1]);
+                    item.setName((String) row[2]);
+                    item.setImage((String) row[3]);
+                    item.setQuantity((Integer) row[4]);
+                    item.setPrice((Integer) row[5]);
+                    return item;
+                })
+                .collect(Collectors.toList());
 
         // OrderDTO 생성 및 반환
         OrderDTO orderDTO = new OrderDTO();
@@ -49,4 +74,66 @@ public class OrderService {
         orderDTO.setCartItems(cartItems);
         return orderDTO;
     }
-}
\ No newline at end of file
+
+    // 내 주문 내역 (최신순 키셋 페이지). 쿼리: 사용자 id 1회 + 주문 페이지 1회 + 항목 IN 1회
+    @Transactional(readOnly = true)
+    public OrderPageResponse getMyOrders(String username, String cursor, Integer size) {
+        Long userId = userRepository.findIdByEmail(username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found with email: " + username));
+        int pageSize = (size == null || size <= 0) ? defaultPageSize : Math.min(size, maxPageSize);
+
+        LocalDateTime cursorCreatedAt = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            try {
+                cursorCreatedAt = LocalDateTime.parse(parts[0]);
+                cursorId = Long.parseLong(parts[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("잘못된 커서입니다.");
+            }
+        }
+
+        // 다음 페이지 존재 여부 확인을 위해 한 건 더 조회
+        List<OrderSummary> rows = orderRepository.findPageByUser(userId, cursorCreatedAt, cursorId, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = rows.size() > pageSize;
+        List<OrderSummary> items = hasNext ? rows.subList(0, pageSize) : rows;
+
+        if (!items.isEmpty()) {
+            Map<Long, OrderSummary> byId = items.stream()
+                    .collect(Collectors.toMap(OrderSummary::getId, Function.identity()));
+            for (Object[] row : orderItemRepository.findLinesByOrderIds(byId.keySet())) {
+                OrderSummary summary = byId.get((Long) row[0]);
+                summary.addLine((String) row[2], (String) row[3],
+                        row[4] != null ? (Integer) row[4] : 0,
+                        row[5] != null ? (Integer) row[5] : 0);
+            }
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            OrderSummary last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new OrderPageResponse(items, nextCursor, hasNext, items.size());
+    }
+
+    // 커서 형식: base64url("createdAt|id")
+    private String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("잘못된 커서입니다.");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.");
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.company.baseballshop.service;
+
+import com.company.baseballshop.repository.DiscountedProductRepository;
+import com.company.baseballshop.repository.ImageObjectRepository;
+import com.company.baseballshop.repository.ProductRepository;
+import com.company.baseballshop.repository.ReviewRepository;
+import com.company.baseballshop.storage.KeyBloomFilter;
+import com.company.baseballshop.storage.ObjectStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+// 어떤 행도 가리키지 않는 이미지 객체 정리
+// 참조 URL을 id 키셋으로 읽어 버킷별 블룸 필터에 담고 -> ListObjectsV2 페이지를 흘려 보며 후보를 고르고
+// -> 후보 1000개마다 DB로 다시 확인한 뒤 DeleteObjects 한 번으로 지운다. 메모리는 필터 크기 + 한 페이지로 묶인다
+@Slf4j
+@Service
+public class OrphanImageCollector {
+
+    private final ObjectStore objectStore;
+    private final S3Service s3Service;
+    private final ProductRepository productRepository;
+    private final DiscountedProductRepository discountedProductRepository;
+    private final ReviewRepository reviewRepository;
+    private final ImageObjectRepository imageObjectRepository;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // 이보다 최근에 올라온 객체는 아직 행에 연결되기 전일 수 있으므로 건드리지 않는다
+    @Value("${storage.gc.grace-hours:24}")
+    private long graceHours;
+
+    @Value("${storage.gc.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${storage.gc.bloom-fpp:0.01}")
+    private double bloomFalsePositiveRate;
+
+    // true면 삭제 대상만 로그로 남긴다
+    @Value("${storage.gc.dry-run:true}")
+    private boolean dryRun;
+
+    public OrphanImageCollector(ObjectStore objectStore, S3Service s3Service, ProductRepository productRepository,
+                                DiscountedProductRepository discountedProductRepository, ReviewRepository reviewRepository,
+                                ImageObjectRepository imageObjectRepository) {
+        this.objectStore = objectStore;
+        this.s3Service = s3Service;
+        this.productRepository = productRepository;
+        this.discountedProductRepository = discountedProductRepository;
+        this.reviewRepository = reviewRepository;
+        this.imageObjectRepository = imageObjectRepository;
+    }
+
+    @Scheduled(cron = "${storage.gc.cron:0 0 4 * * *}")
+    public void collect() {
+        // 이전 실행이 길어져도 겹치지 않게 한다
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Map<String, KeyBloomFilter> referenced = loadReferences();
+            Instant cutoff = Instant.now().minus(Duration.ofHours(graceHours));
+            for (String bucket : s3Service.buckets()) {
+                collectBucket(bucket, referenced.get(bucket), cutoff);
+            }
+        } catch (Exception e) {
+            log.error("고아 이미지 정리 실패: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, KeyBloomFilter> loadReferences() {
+        // 버킷별 참조 수를 모르므로 전체 행 수로 잡는다 (크게 잡으면 오탐만 줄어든다)
+        long expected = productRepository.count() + discountedProductRepository.count()
+                + reviewRepository.count() + imageObjectRepository.count();
+        Map<String, KeyBloomFilter> filters = new HashMap<>();
+        for (String bucket : s3Service.buckets()) {
+            filters.put(bucket, new KeyBloomFilter(expected, bloomFalsePositiveRate));
+        }
+
+        long foreign = 0;
+        foreign += addUrls(filters, productRepository::findImagesAfter);
+        foreign += addUrls(filters, discountedProductRepository::findImagesAfter);
+        foreign += addUrls(filters, reviewRepository::findImagesAfter);
+        for (String bucket : s3Service.buckets()) {
+            KeyBloomFilter filter = filters.get(bucket);
+            scan((afterId, page) -> imageObjectRepository.findKeysAfter(bucket, afterId, page), filter::add);
+        }
+        if (foreign > 0) {
+            // 우리 URL 형식이 아닌 값이 있으면 그 객체는 후보로 잡힐 수 있으므로 dry-run 로그로 먼저 확인한다
+            log.warn("버킷 URL로 인식하지 못한 이미지 참조: count={}", foreign);
+        }
+        return filters;
+    }
+
+    private long addUrls(Map<String, KeyBloomFilter> filters, BiFunction<Long, PageRequest, List<Object[]>> query) {
+        long[] foreign = {0};
+        scan(query, url -> {
+            S3Service.ObjectLocation location = s3Service.locate(url);
+            if (location == null) {
+                foreign[0]++;
+                return;
+            }
+            filters.get(location.bucket()).add(location.key());
+        });
+        return foreign[0];
+    }
+
+    // [id, 값] 행을 id 키셋으로 끝까지 읽는다
+    private void scan(BiFunction<Long, PageRequest, List<Object[]>> query, Consumer<String> consumer) {
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> rows = query.apply(afterId, PageRequest.of(0, batchSize));
+            for (Object[] row : rows) {
+                if (row[1] != null) {
+                    consumer.accept((String) row[1]);
+                }
+            }
+            if (rows.size() < batchSize) {
+                return;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    private void collectBucket(String bucket, KeyBloomFilter referenced, Instant cutoff) {
+        long scanned = 0;
+        long candidates = 0;
+        long deleted = 0;
+        List<String> batch = new ArrayList<>();
+        CompletableFuture<ObjectStore.ObjectListing> next = objectStore.list(bucket, null);
+        while (next != null) {
+            ObjectStore.ObjectListing page = next.join();
+            // 이번 페이지를 보는 동안 다음 페이지를 미리 받아 둔다
+            next = page.nextToken() != null ? objectStore.list(bucket, page.nextToken()) : null;
+            for (ObjectStore.StoredObject object : page.objects()) {
+                scanned++;
+                if (object.lastModified() != null && object.lastModified().isAfter(cutoff)) {
+                    continue;
+                }
+                // 변형은 원본이 참조되는 동안 살려 둔다
+                if (referenced.mightContain(s3Service.originalKeyOf(object.key()))) {
+                    continue;
+                }
+                batch.add(object.key());
+                if (batch.size() == ObjectStore.MAX_DELETE_BATCH) {
+                    candidates += batch.size();
+                    deleted += sweep(bucket, batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            candidates += batch.size();
+            deleted += sweep(bucket, batch);
+        }
+        log.info("고아 이미지 정리: bucket={}, scanned={}, candidates={}, deleted={}, dryRun={}",
+                bucket, scanned, candidates, deleted, dryRun);
+    }
+
+    // 필터를 만든 뒤에 연결된 객체가 있을 수 있으므로 삭제 직전에 DB로 다시 확인한다
+    private int sweep(String bucket, List<String> keys) {
+        Set<String> originals = new HashSet<>();
+        Map<String, String> urlToOriginal = new HashMap<>();
+        for (String key : keys) {
+            String original = s3Service.originalKeyOf(key);
+            if (originals.add(original)) {
+                s3Service.urlsOf(bucket, original).forEach(url -> urlToOriginal.put(url, original));
+            }
+        }
+        Set<String> stillReferenced = new HashSet<>(imageObjectRepository.findKeysIn(bucket, originals));
+        List<String> urls = new ArrayList<>(urlToOriginal.keySet());
+        productRepository.findImagesIn(urls).forEach(url -> stillReferenced.add(urlToOriginal.get(url)));
+        discountedProductRepository.findImagesIn(urls).forEach(url -> stillReferenced.add(urlToOriginal.get(url)));
+        reviewRepository.findImagesIn(urls).forEach(url -> stillReferenced.add(urlToOriginal.get(url)));
+
+        List<String> orphans = keys.stream()
+                .filter(key -> !stillReferenced.contains(s3Service.originalKeyOf(key)))
+                .toList();
+        if (orphans.isEmpty()) {
+            return 0;
+        }
+        if (dryRun) {
+            log.info("고아 이미지 (dry-run): bucket={}, count={}, sample={}", bucket, orphans.size(),
+                    orphans.subList(0, Math.min(10, orphans.size())));
+            return 0;
+        }
+        List<String> failed = objectStore.deleteAll(bucket, orphans).join();
+        return orphans.size() - failed.size();
+    }
+}
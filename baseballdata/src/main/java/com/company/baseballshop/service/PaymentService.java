@@ -1,33 +1,44 @@
 package com.company.baseballshop.service;
 
 import com.company.baseballshop.dto.CartItemDTO;
+import com.company.baseballshop.dto.CheckoutRequest;
 import com.company.baseballshop.dto.PaymentRequest;
 
 import com.company.baseballshop.dto.PaymentResponse;
+import com.company.baseballshop.dto.PortOnePayment;
 
+import com.company.baseballshop.model.IdempotencyRecord;
 import com.company.baseballshop.model.Order;
 import com.company.baseballshop.model.OrderItem;
 import com.company.baseballshop.model.Product;
 import com.company.baseballshop.model.User;
+import com.company.baseballshop.repository.CartItemBatchRepository;
+import com.company.baseballshop.repository.CartItemRepository;
+import com.company.baseballshop.repository.OrderItemBatchRepository;
 import com.company.baseballshop.repository.OrderItemRepository;
 import com.company.baseballshop.repository.OrderRepository;
 import com.company.baseballshop.repository.ProductRepository;
 import com.company.baseballshop.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class PaymentService {
 
-    @Value("${portone.api-key}")
-    private String apiKey;
-
     @Value("${portone.secret-key}")
     private String secretKey;
 
@@ -40,16 +51,158 @@ public class PaymentService {
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    @Autowired
+    private OrderItemBatchRepository orderItemBatchRepository;
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private UserRepository userRepository;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PortOneClient portOneClient;
 
-    // 결제 준비 (주문 생성)
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartItemBatchRepository cartItemBatchRepository;
+
+    // 결제 준비 (주문 생성 + 재고 예약)
     public PaymentResponse initiatePayment(PaymentRequest requestDTO, String username) {
+        return initiatePayment(requestDTO, username, null);
+    }
+
+    // Idempotency-Key가 있으면 같은 키의 재시도는 주문을 다시 만들지 않고 처음 응답을 돌려준다
+    public PaymentResponse initiatePayment(PaymentRequest requestDTO, String username, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return admitAndCreate(requestDTO, username, null);
+        }
+        IdempotencyService.Key key = idempotencyService.key(username, idempotencyKey.trim(), requestDTO);
+        return idempotencyService.execute(key, () -> admitAndCreate(requestDTO, username, key));
+    }
+
+    private PaymentResponse admitAndCreate(PaymentRequest requestDTO, String username, IdempotencyService.Key key) {
+        List<Long> productIds = requestDTO.getCartItems().stream()
+                .map(CartItemDTO::getProductId)
+                .toList();
+        return admitAndRun(productIds, key, () -> createPendingOrder(requestDTO, username));
+    }
+
+    // 플래시 세일 상품이 있으면 공정 대기열을 통과한 요청만 트랜잭션을 연다
+    private PaymentResponse admitAndRun(List<Long> productIds, IdempotencyService.Key key, Supplier<PaymentResponse> createOrder) {
+        try (FlashSaleService.Admission admission = flashSaleService.admit(productIds)) {
+            return transactionTemplate.execute(status -> {
+                IdempotencyRecord record = key != null ? idempotencyService.claim(key) : null;
+                PaymentResponse response = createOrder.get();
+                if (record != null) {
+                    idempotencyService.complete(record, response);
+                }
+                return response;
+            });
+        }
+    }
+
+    // 장바구니 결제: 클라이언트가 보낸 상품 목록 대신 cart_items와 현재 가격으로 주문을 만든다
+    public PaymentResponse checkout(CheckoutRequest request, String username, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return checkoutCart(request, username, null);
+        }
+        IdempotencyService.Key key = idempotencyService.key(username, idempotencyKey.trim(), request);
+        return idempotencyService.execute(key, () -> checkoutCart(request, username, key));
+    }
+
+    private PaymentResponse checkoutCart(CheckoutRequest request, String username, IdempotencyService.Key key) {
+        // write-behind 장바구니면 메모리 변경분부터 반영
+        cartService.flushPendingChanges(username);
+
+        // 장바구니 + 상품 현재 가격/재고를 조인 한 번으로 조회. 재고는 예약 단계의 조건부 차감으로 다시 확인된다
+        List<CartItemDTO> lines = cartItemRepository.findCartLinesByEmail(username);
+        if (lines.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cart is empty");
+        }
+        List<Long> productIds = lines.stream().map(CartItemDTO::getProductId).toList();
+
+        PaymentResponse response = admitAndRun(productIds, key, () -> createOrderFromCart(request, username, lines));
+        cartService.onCheckedOut(username, lines.stream()
+                .collect(Collectors.toMap(CartItemDTO::getProductId, CartItemDTO::getQuantity, Integer::sum)));
+        return response;
+    }
+
+    private PaymentResponse createOrderFromCart(CheckoutRequest request, String username, List<CartItemDTO> lines) {
+        Long userId = userRepository.findIdByEmail(username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found with email: " + username));
+        int amount = lines.stream().mapToInt(CartItemDTO::getLineTotal).sum();
+        String orderName = request.getOrderName() != null && !request.getOrderName().isBlank()
+                ? request.getOrderName()
+                : lines.get(0).getName() + (lines.size() > 1 ? " 외 " + (lines.size() - 1) + "건" : "");
+
+        // 주문 생성 (사용자는 id 참조만 사용)
+        Order order = new Order();
+        order.setUser(userRepository.getReferenceById(userId));
+        order.setAmount(amount);
+        order.setOrderName(orderName);
+        order.setCustomerName(request.getCustomerName());
+        order.setCustomerPhone(request.getCustomerPhone());
+        order.setCustomerAddress(request.getCustomerAddress());
+        order.setPaymentMethod(request.getPaymentMethod());
+        order.setStatus("PENDING");
+        order = orderRepository.save(order);
+
+        // 장바구니는 트랜잭션 밖에서 읽었으므로, 읽은 수량 그대로인 줄만 삭제해 주문으로 옮긴다.
+        // 그 사이 수량이 바뀌거나 지워진 줄이 있으면 주문 전체를 되돌린다 (삭제가 행을 잠그므로 이후 변경은 커밋 뒤로 밀린다)
+        List<CartItemBatchRepository.Line> cartLines = lines.stream()
+                .map(line -> new CartItemBatchRepository.Line(line.getProductId(), line.getQuantity()))
+                .toList();
+        int[] deleted = cartItemBatchRepository.deleteAllIfUnchanged(userId, cartLines);
+        for (int i = 0; i < deleted.length; i++) {
+            if (deleted[i] != 1) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Cart changed during checkout, please retry: productId=" + cartLines.get(i).productId());
+            }
+        }
+
+        // 주문 항목 배치 저장 (가격은 장바구니 조회 시점의 상품 가격)
+        Map<Long, Integer> quantities = new HashMap<>();
+        List<OrderItem> orderItems = new ArrayList<>(lines.size());
+        for (CartItemDTO line : lines) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
+            orderItem.setProduct(productRepository.getReferenceById(line.getProductId()));
+            orderItem.setQuantity(line.getQuantity());
+            orderItem.setPriceAtPurchase(line.getPrice());
+            orderItems.add(orderItem);
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        orderItemBatchRepository.insertAll(orderItems);
+
+        // 재고 예약 (배치)
+        stockReservationService.reserve(order.getId(), quantities);
+
+        PaymentResponse responseDTO = new PaymentResponse();
+        responseDTO.setOrderId(String.valueOf(order.getId()));
+        responseDTO.setAmount(amount);
+        responseDTO.setOrderName(orderName);
+        return responseDTO;
+    }
+
+    private PaymentResponse createPendingOrder(PaymentRequest requestDTO, String username) {
         // 사용자 조회
         User user = userRepository.findByEmail(username)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found with email: " + username));
@@ -66,18 +219,37 @@ public class PaymentService {
         order.setStatus("PENDING");
         order = orderRepository.save(order);
 
-        // 주문 항목 저장
-        for (CartItemDTO cartItem : requestDTO.getCartItems()) {
-            Product product = productRepository.findById(cartItem.getProductId())
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with id: " + cartItem.getProductId()));
+        // 주문 항목 저장: 상품은 IN 조회 한 번, 항목은 JDBC 배치 한 번
+        List<? extends CartItemDTO> cartItems = requestDTO.getCartItems();
+        for (CartItemDTO cartItem : cartItems) {
+            if (cartItem.getQuantity() == null || cartItem.getQuantity() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid quantity for product id: " + cartItem.getProductId());
+            }
+        }
+        Map<Long, Product> products = productRepository.findAllById(
+                        cartItems.stream().map(CartItemDTO::getProductId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
 
+        Map<Long, Integer> quantities = new HashMap<>();
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
+        for (CartItemDTO cartItem : cartItems) {
+            Product product = products.get(cartItem.getProductId());
+            if (product == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with id: " + cartItem.getProductId());
+            }
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setProduct(product);
             orderItem.setQuantity(cartItem.getQuantity());
             orderItem.setPriceAtPurchase(product.getPrice());
-            orderItemRepository.save(orderItem);
+            orderItems.add(orderItem);
+            quantities.merge(product.getId(), cartItem.getQuantity(), Integer::sum);
         }
+        orderItemBatchRepository.insertAll(orderItems);
+
+        // 재고 예약은 트랜잭션 마지막에 수행해 상품 행 잠금 시간을 최소화
+        stockReservationService.reserve(order.getId(), quantities);
 
         // 응답 DTO 생성
         PaymentResponse responseDTO = new PaymentResponse();
@@ -86,60 +258,110 @@ public class PaymentService {
         return responseDTO;
     }
 
-    // 결제 검증
-    public void verifyPayment(String paymentKey, Long orderId) {
-        // 포트원 결제 정보 조회 API 호출
-        String url = "https://api.portone.io/payments/" + paymentKey; // 포트원 API v2 엔드포인트
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + apiKey); // 포트원 API 인증 방식
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-        ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, entity, Map.class);
-
-        if (response.getStatusCode() != HttpStatus.OK) {
-            throw new RuntimeException("Failed to verify payment with PortOne: " + response.getStatusCode());
-        }
+    // 결제창을 열기 전에 paymentId를 등록. 클라이언트가 검증 요청 없이 떠나도 정산 작업이 결제 결과를 확인할 수 있다
+    public boolean registerPaymentKey(Long orderId, String paymentKey, String username) {
+        Integer updated = transactionTemplate.execute(
+                status -> orderRepository.updatePaymentKeyForUser(orderId, paymentKey, username));
+        return updated != null && updated == 1;
+    }
 
-        Map<String, Object> paymentData = response.getBody();
-        if (paymentData == null) {
-            throw new RuntimeException("No payment data returned from PortOne");
-        }
+    // 결제 검증: 포트원 조회는 논블로킹으로, 이후 DB 작업은 boundedElastic 스레드에서 처리
+    // 포트원 조회 전에 paymentKey를 먼저 저장해, 검증이 중간에 실패해도 정산 작업이 이어받을 수 있게 한다
+    public Mono<Void> verifyPayment(String paymentKey, Long orderId, String email) {
+        return Mono.fromRunnable(() -> claimPaymentKey(orderId, paymentKey, email))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(portOneClient.getPayment(paymentKey))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(payment -> applyVerification(payment, orderId))
+                .then();
+    }
 
-        // 포트원 API 응답 구조에 따라 필드 확인
-        Map<String, Object> payment = (Map<String, Object>) paymentData.get("payment");
-        if (payment == null) {
-            throw new RuntimeException("Invalid payment data structure from PortOne");
+    // 본인 주문이고 다른 결제 키가 붙어 있지 않을 때만 검증을 진행한다
+    // 결제 대기 주문이면 키를 남기고, 이미 만료된 주문은 키 없이 포트원 결과로만 판단한다
+    private void claimPaymentKey(Long orderId, String paymentKey, String email) {
+        Boolean payable = transactionTemplate.execute(status ->
+                orderRepository.updatePaymentKeyForUser(orderId, paymentKey, email) == 1
+                        || orderRepository.isPayableBy(orderId, paymentKey, email));
+        if (!Boolean.TRUE.equals(payable)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found with id: " + orderId);
         }
+    }
 
-        String status = (String) payment.get("status");
-        Map<String, Object> amountData = (Map<String, Object>) payment.get("amount");
-        Integer amount = amountData != null ? (Integer) amountData.get("total") : null;
-
-        if (status == null || amount == null) {
-            throw new RuntimeException("Missing status or amount in PortOne response");
-        }
+    private void applyVerification(PortOnePayment payment, Long orderId) {
+        String status = payment.getStatus();
+        Integer amount = payment.getAmount();
 
-        // 주문 조회
+        // 주문 조회. 상태는 여기서 읽은 값이 아니라 아래 조건부 전이 결과로만 판단한다
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found with id: " + orderId));
 
         // 결제 상태 확인
         if (!status.equals("PAID")) {
-            order.setStatus("FAILED");
-            orderRepository.save(order);
+            fail(orderId);
             throw new RuntimeException("Payment not completed: " + status);
         }
 
         // 결제 금액 검증
         if (!amount.equals(order.getAmount())) {
-            order.setStatus("FAILED");
-            orderRepository.save(order);
+            fail(orderId);
             throw new RuntimeException("Payment amount mismatch: expected " + order.getAmount() + ", got " + amount);
         }
 
-        // 결제 성공 시 주문 상태 업데이트
-        order.setStatus("COMPLETED");
-        orderRepository.save(order);
+        complete(orderId);
+    }
+
+    // 결제 성공: 상태 전이와 재고 확정을 한 트랜잭션에서 처리
+    // 조건부 전이에 성공한 쪽만 재고를 건드리므로 만료 스윕, 정산 작업과 경합해도 한 번만 반영된다
+    private void complete(Long orderId) {
+        String from;
+        try {
+            from = transactionTemplate.execute(status -> {
+                for (String candidate : List.of("PENDING", "EXPIRED")) {
+                    if (orderRepository.transitionStatus(orderId, candidate, "COMPLETED") != 1) {
+                        continue;
+                    }
+                    // 예약이 이미 해제됐으면 재고를 다시 잡는다. 예약 도입 이전 주문은 상태만 바꾼다
+                    if (stockReservationService.commit(orderId) == 0 && stockReservationService.hasReservations(orderId)) {
+                        reserveAgain(orderId);
+                    }
+                    return candidate;
+                }
+                return null;
+            });
+        } catch (ResponseStatusException e) {
+            // 재고를 다시 잡지 못하면 전이까지 롤백되므로 원래 상태에서 FAILED로 옮긴다
+            fail(orderId);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Payment completed after reservation expired and stock is no longer available: orderId=" + orderId);
+        }
+        if (from != null) {
+            return;
+        }
+        // 정산 작업이 먼저 COMPLETED로 옮긴 경우는 그대로 성공. FAILED 주문은 되살리지 않는다
+        String current = orderRepository.findById(orderId).map(Order::getStatus).orElse(null);
+        if (!"COMPLETED".equals(current)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Order is no longer payable: orderId=" + orderId + ", status=" + current);
+        }
+    }
+
+    // 결제 실패: PENDING에서 옮긴 쪽만 재고를 돌려준다. 만료된 주문은 FAILED로만 바꾸고, COMPLETED는 덮어쓰지 않는다
+    private void fail(Long orderId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (orderRepository.transitionStatus(orderId, "PENDING", "FAILED") == 1) {
+                stockReservationService.release(orderId);
+            } else {
+                orderRepository.transitionStatus(orderId, "EXPIRED", "FAILED");
+            }
+        });
+    }
+
+    // 부족하면 ResponseStatusException -> 호출 트랜잭션 전체 롤백
+    private void reserveAgain(Long orderId) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        List<OrderItem> orderItems = orderItemRepository.findByOrderId(orderId);
+        for (OrderItem item : orderItems) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        stockReservationService.reserve(orderId, quantities);
+        stockReservationService.commit(orderId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,159 @@
+package com.company.baseballshop.service;
+
+import com.company.baseballshop.dto.PortOnePayment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 포트원 결제 조회 클라이언트. 호출별 타임아웃 + 지터 재시도 + 서킷 브레이커
+@Slf4j
+@Component
+public class PortOneClient {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> PAYMENT_BODY = new ParameterizedTypeReference<>() {};
+
+    private final WebClient portOneWebClient;
+    private final CircuitBreaker circuitBreaker;
+
+    @Value("${portone.http.call-timeout-ms:6000}")
+    private long callTimeoutMs;
+
+    @Value("${portone.retry.max-retries:2}")
+    private int maxRetries;
+
+    @Value("${portone.retry.backoff-ms:200}")
+    private long retryBackoffMs;
+
+    public PortOneClient(WebClient portOneWebClient,
+                         @Value("${portone.circuit.failure-threshold:5}") int failureThreshold,
+                         @Value("${portone.circuit.open-ms:30000}") long openMs) {
+        this.portOneWebClient = portOneWebClient;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMs);
+    }
+
+    // 연속 실패가 임계치를 넘으면 일정 시간 호출을 차단하고, 이후 한 건만 시험 호출을 허용한다
+    static final class CircuitBreaker {
+        private final int failureThreshold;
+        private final long openMs;
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicLong openedAt = new AtomicLong(0);
+
+        CircuitBreaker(int failureThreshold, long openMs) {
+            this.failureThreshold = failureThreshold;
+            this.openMs = openMs;
+        }
+
+        boolean tryAcquire() {
+            long opened = openedAt.get();
+            if (opened == 0) {
+                return true;
+            }
+            long now = System.currentTimeMillis();
+            // half-open: 차단 시간이 지나면 먼저 도착한 한 건만 통과시키고 다시 차단 시각을 갱신
+            return now - opened >= openMs && openedAt.compareAndSet(opened, now);
+        }
+
+        void onSuccess() {
+            consecutiveFailures.set(0);
+            openedAt.set(0);
+        }
+
+        void onFailure() {
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                openedAt.compareAndSet(0, System.currentTimeMillis());
+            }
+        }
+
+        boolean isOpen() {
+            return openedAt.get() != 0;
+        }
+    }
+
+    public boolean isAvailable() {
+        return !circuitBreaker.isOpen();
+    }
+
+    public Mono<PortOnePayment> getPayment(String paymentId) {
+        return Mono.defer(() -> {
+                    if (!circuitBreaker.tryAcquire()) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                                "PortOne is temporarily unavailable"));
+                    }
+                    return fetch(paymentId)
+                            .doOnSuccess(payment -> circuitBreaker.onSuccess())
+                            .doOnError(e -> {
+                                if (isTransient(e)) {
+                                    circuitBreaker.onFailure();
+                                }
+                            });
+                })
+                .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(retryBackoffMs))
+                        .jitter(0.5)
+                        .filter(this::isTransient)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .onErrorMap(e -> !(e instanceof ResponseStatusException), this::toResponseStatus);
+    }
+
+    private Mono<PortOnePayment> fetch(String paymentId) {
+        return portOneWebClient.get()
+                .uri("/payments/{paymentId}", paymentId) // 포트원 API v2 엔드포인트
+                .retrieve()
+                .bodyToMono(PAYMENT_BODY)
+                .timeout(Duration.ofMillis(callTimeoutMs))
+                .map(body -> parse(paymentId, body));
+    }
+
+    @SuppressWarnings("unchecked")
+    private PortOnePayment parse(String paymentId, Map<String, Object> paymentData) {
+        // 포트원 API 응답 구조에 따라 필드 확인
+        Map<String, Object> payment = (Map<String, Object>) paymentData.get("payment");
+        if (payment == null) {
+            throw new IllegalStateException("Invalid payment data structure from PortOne");
+        }
+        String status = (String) payment.get("status");
+        Map<String, Object> amountData = (Map<String, Object>) payment.get("amount");
+        Number amount = amountData != null ? (Number) amountData.get("total") : null;
+        if (status == null || amount == null) {
+            throw new IllegalStateException("Missing status or amount in PortOne response");
+        }
+        return new PortOnePayment(paymentId, status, amount.intValue());
+    }
+
+    // 타임아웃, 연결 오류, 5xx/429만 재시도·서킷 집계 대상. 4xx는 요청 자체의 문제로 본다
+    private boolean isTransient(Throwable e) {
+        if (e instanceof TimeoutException || e instanceof WebClientRequestException) {
+            return true;
+        }
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError()
+                    || response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        return false;
+    }
+
+    private Throwable toResponseStatus(Throwable e) {
+        if (e instanceof WebClientResponseException response && response.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+            return new ResponseStatusException(HttpStatus.NOT_FOUND, "Payment not found in PortOne");
+        }
+        if (e instanceof TimeoutException) {
+            log.warn("포트원 응답 시간 초과");
+            return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "PortOne did not respond in time");
+        }
+        log.warn("포트원 결제 조회 실패: {}", e.getMessage());
+        return new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Failed to verify payment with PortOne: " + e.getMessage());
+    }
+}
@@ -0,0 +1,106 @@
+package com.company.baseballshop.service;
+
+import com.company.baseballshop.dto.RatingSummary;
+import com.company.baseballshop.model.ProductRatingSummary;
+import com.company.baseballshop.repository.ProductRatingSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 상품 평점 집계를 리뷰 변경과 같은 트랜잭션에서 증감 UPDATE로 유지하고, 야간에 전체 재집계로 검증한다
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductRatingService {
+
+    private final ProductRatingSummaryRepository productRatingSummaryRepository;
+    private final CatalogCache catalogCache;
+
+    public void onReviewCreated(Long productId, int rating) {
+        apply(productId, 1, rating, rating, 0);
+    }
+
+    public void onReviewRatingChanged(Long productId, int oldRating, int newRating) {
+        if (oldRating == newRating) {
+            return;
+        }
+        apply(productId, 0, newRating - oldRating, newRating, oldRating);
+    }
+
+    public void onReviewDeleted(Long productId, int rating) {
+        apply(productId, -1, -rating, 0, rating);
+    }
+
+    private void apply(Long productId, int countDelta, int sumDelta, int addStar, int removeStar) {
+        if (productId == null) {
+            return; // 상품과 연결되지 않은 리뷰는 집계 대상이 아님
+        }
+        productRatingSummaryRepository.applyDelta(productId, countDelta, sumDelta, addStar, removeStar);
+        catalogCache.onRatingChanged(productId);
+    }
+
+    public RatingSummary getRating(Long productId) {
+        return productRatingSummaryRepository.findById(productId)
+                .map(RatingSummary::from)
+                .orElseGet(RatingSummary::empty);
+    }
+
+    // 증감 누락(수동 SQL 수정, 장애 중 유실 등)을 잡기 위한 전체 재집계. 어긋난 행만 덮어쓴다
+    @Scheduled(cron = "${rating.summary.rebuild-cron:0 30 3 * * *}")
+    @Transactional
+    public int rebuild() {
+        Map<Long, ProductRatingSummary> stored = new HashMap<>();
+        for (ProductRatingSummary summary : productRatingSummaryRepository.findAll()) {
+            stored.put(summary.getProductId(), summary);
+        }
+
+        int fixed = 0;
+        List<Object[]> rows = productRatingSummaryRepository.aggregateFromReviews();
+        for (Object[] row : rows) {
+            Long productId = ((Number) row[0]).longValue();
+            int count = ((Number) row[1]).intValue();
+            long sum = ((Number) row[2]).longValue();
+            int[] stars = new int[5];
+            for (int i = 0; i < 5; i++) {
+                stars[i] = row[3 + i] != null ? ((Number) row[3 + i]).intValue() : 0;
+            }
+            ProductRatingSummary current = stored.remove(productId);
+            if (!matches(current, count, sum, stars)) {
+                log.warn("평점 집계 불일치 보정: productId={}, count={}→{}, sum={}→{}", productId,
+                        current != null ? current.getReviewCount() : 0, count,
+                        current != null ? current.getRatingSum() : 0, sum);
+                productRatingSummaryRepository.overwrite(productId, count, sum, stars[0], stars[1], stars[2], stars[3], stars[4]);
+                fixed++;
+            }
+        }
+        // 리뷰가 모두 사라진 상품은 0으로 맞춘다
+        for (ProductRatingSummary orphan : stored.values()) {
+            if (!matches(orphan, 0, 0L, new int[5])) {
+                log.warn("평점 집계 불일치 보정: productId={}, count={}→0", orphan.getProductId(), orphan.getReviewCount());
+                productRatingSummaryRepository.overwrite(orphan.getProductId(), 0, 0L, 0, 0, 0, 0, 0);
+                fixed++;
+            }
+        }
+
+        log.info("평점 집계 검증 완료: products={}, fixed={}", rows.size(), fixed);
+        if (fixed > 0) {
+            TransactionCallbacks.afterCommit(catalogCache::reload);
+        }
+        return fixed;
+    }
+
+    private boolean matches(ProductRatingSummary summary, int count, long sum, int[] stars) {
+        if (summary == null) {
+            return count == 0;
+        }
+        return summary.getReviewCount() == count && summary.getRatingSum() == sum
+                && summary.getStar1() == stars[0] && summary.getStar2() == stars[1] && summary.getStar3() == stars[2]
+                && summary.getStar4() == stars[3] && summary.getStar5() == stars[4];
+    }
+}
@@ -1,12 +1,28 @@
 package com.company.baseballshop.service;
 
+import com.company.baseballshop.dto.ProductFacets;
+import com.company.baseballshop.dto.ProductPageResponse;
+import com.company.baseballshop.dto.ProductSearchResponse;
+import com.company.baseballshop.dto.ProductSummary;
 import com.company.baseballshop.model.Product;
 import com.company.baseballshop.repository.ProductRepository;
+import com.company.baseballshop.search.ProductSearchIndex;
+import com.company.baseballshop.search.ProductSuggester;
+import com.company.baseballshop.search.SearchHit;
+import com.company.baseballshop.search.Suggestion;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
 @Slf4j
@@ -15,6 +31,21 @@ import java.util.List;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final CatalogCache catalogCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggester productSuggester;
+    private final FlashSaleService flashSaleService;
+    private final ProductRatingService productRatingService;
+    private final ImagePipeline imagePipeline;
+
+    @Value("${product.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${product.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${product.search.max-size:50}")
+    private int maxSearchSize;
 
     @Transactional
     public Product createProduct(String name, String category, String brand, Integer price, Integer discountPrice, String imageUrl, String description, boolean isDiscounted, Integer discountPercent, Integer stock) {
@@ -52,7 +83,12 @@ public class ProductService {
         product.setDiscounted(isDiscounted);
         product.setStock(stock);
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogCache.onProductSaved(saved);
+        productSearchIndex.onProductSaved(saved);
+        productSuggester.onProductSaved(saved);
+        imagePipeline.submitProduct(saved.getId(), saved.getImage());
+        return saved;
     }
 
     @Transactional
@@ -86,12 +122,46 @@ public class ProductService {
         product.setPrice(price);
         product.setDiscountPrice(isDiscounted && discountPrice != null ? discountPrice : null);
         product.setDiscountPercent(isDiscounted ? discountPercent : null);
-        product.setImageUrl(imageUrl != null ? imageUrl : product.getImageUrl());
+        boolean imageChanged = imageUrl != null && !imageUrl.equals(product.getImageUrl());
+        if (imageChanged) {
+            product.setImageUrl(imageUrl);
+            product.setImageVariants(null); // 새 변형이 만들어질 때까지 원본으로 표시
+        }
         product.setDescription(description);
         product.setDiscounted(isDiscounted);
+        // 플래시 세일 중에는 메모리 카운터가 재고의 기준이므로 수정을 막는다
+        if (flashSaleService.isActive(id) && !Integer.valueOf(product.getStock()).equals(stock)) {
+            throw new IllegalArgumentException("플래시 세일 중에는 재고를 수정할 수 없습니다.");
+        }
         product.setStock(stock);
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogCache.onProductSaved(saved);
+        productSearchIndex.onProductSaved(saved);
+        productSuggester.onProductSaved(saved);
+        if (imageChanged) {
+            imagePipeline.submitProduct(saved.getId(), saved.getImage());
+        }
+        return saved;
+    }
+
+    // 바로 올리기로 업로드가 끝난 사진만 교체
+    @Transactional
+    public Product updateProductImage(Long id, String imageUrl) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
+        if (imageUrl.equals(product.getImageUrl())) {
+            return product;
+        }
+        product.setImageUrl(imageUrl);
+        product.setImageVariants(null); // 새 변형이 만들어질 때까지 원본으로 표시
+        Product saved = productRepository.save(product);
+        catalogCache.onProductSaved(saved);
+        productSearchIndex.onProductSaved(saved);
+        productSuggester.onProductSaved(saved);
+        imagePipeline.submitProduct(saved.getId(), saved.getImage());
+        log.info("상품 사진 교체: id={}", id);
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -100,29 +170,120 @@ public class ProductService {
                 .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
     }
 
+    // 상세 응답에는 평점 요약을 붙인다 (집계 테이블 PK 조회 1회)
     @Transactional(readOnly = true)
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public Product getProductDetail(Long id) {
+        Product product = getProductById(id);
+        product.setRating(productRatingService.getRating(id));
+        return product;
     }
 
-    @Transactional(readOnly = true)
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+    // 목록 조회는 인메모리 카탈로그 스냅샷에서 처리 (DB 왕복 없음)
+    public List<ProductSummary> getAllProducts() {
+        return catalogCache.current().getAll();
     }
 
-    @Transactional(readOnly = true)
-    public List<Product> getProductsByCategoryAndBrand(String category, String brand) {
-        return productRepository.findByCategoryAndBrand(category, brand);
+    public List<ProductSummary> getProductsByCategory(String category) {
+        return catalogCache.current().getByCategory(category);
+    }
+
+    public List<ProductSummary> getProductsByCategoryAndBrand(String category, String brand) {
+        return catalogCache.current().getByCategoryAndBrand(category, brand);
+    }
+
+    public List<ProductSummary> getDiscountedProducts() {
+        return catalogCache.current().getDiscounted();
+    }
+
+    public List<String> getDistinctBrands() {
+        return catalogCache.current().getBrands();
+    }
+
+    public ProductFacets getFacets(String category) {
+        return catalogCache.current().getFacets(blankToNull(category));
+    }
+
+    // 인메모리 검색 색인으로 검색 후, 결과 상품은 카탈로그 스냅샷에서 가져온다
+    public ProductSearchResponse searchProducts(String query, String category, String brand, Integer size) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("검색어를 입력하세요.");
+        }
+        int limit = (size == null || size <= 0) ? defaultPageSize : Math.min(size, maxSearchSize);
+        List<SearchHit> hits = productSearchIndex.search(query, blankToNull(category), blankToNull(brand), limit);
+
+        CatalogSnapshot snapshot = catalogCache.current();
+        List<ProductSummary> items = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            ProductSummary summary = snapshot.getById(hit.getProductId());
+            if (summary != null) {
+                items.add(summary);
+            }
+        }
+        return new ProductSearchResponse(query, items.size(), items);
     }
 
+    // 검색어 자동완성 (인메모리 트라이)
+    public List<Suggestion> suggest(String query, Integer size) {
+        int limit = (size == null || size <= 0) ? 10 : size;
+        return productSuggester.suggest(query, limit);
+    }
+
+    // 관리자 목록은 재고 수량·설명까지 필요하므로 전체 엔티티를 DB에서 조회
     @Transactional(readOnly = true)
-    public List<Product> getDiscountedProducts() {
-        return productRepository.findByIsDiscountedTrue();
+    public List<Product> getProductsForAdmin(String category, String brand) {
+        String categoryFilter = blankToNull(category);
+        String brandFilter = blankToNull(brand);
+        if (categoryFilter == null) {
+            return productRepository.findAll();
+        }
+        if (brandFilter == null) {
+            return productRepository.findByCategory(categoryFilter);
+        }
+        return productRepository.findByCategoryAndBrand(categoryFilter, brandFilter);
     }
 
+    // 키셋(커서) 기반 상품 목록 조회. sort: latest(기본), price_asc, price_desc
     @Transactional(readOnly = true)
-    public List<String> getDistinctBrands() {
-        return productRepository.findDistinctBrands();
+    public ProductPageResponse getProductPage(String category, String brand, Boolean discounted, Integer minPrice, Integer maxPrice,
+                                              String sort, String cursor, Integer size) {
+        String sortKey = (sort == null || sort.isBlank()) ? "latest" : sort;
+        int pageSize = (size == null || size <= 0) ? defaultPageSize : Math.min(size, maxPageSize);
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("최소 가격은 최대 가격보다 클 수 없습니다.");
+        }
+        String categoryFilter = blankToNull(category);
+        String brandFilter = blankToNull(brand);
+
+        // 다음 페이지 존재 여부 확인을 위해 한 건 더 조회
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        String[] cursorParts = decodeCursor(cursor, sortKey);
+        Long cursorId = cursorParts != null ? parseCursorId(cursorParts[1]) : null;
+
+        List<ProductSummary> rows;
+        switch (sortKey) {
+            case "latest" -> {
+                Timestamp cursorCreatedAt = cursorParts != null ? parseCursorTimestamp(cursorParts[0]) : null;
+                rows = productRepository.findPageByLatest(categoryFilter, brandFilter, discounted, minPrice, maxPrice,
+                        cursorCreatedAt, cursorId, limit);
+            }
+            case "price_asc" -> rows = productRepository.findPageByPriceAsc(categoryFilter, brandFilter, discounted, minPrice, maxPrice,
+                    cursorParts != null ? parseCursorPrice(cursorParts[0]) : null, cursorId, limit);
+            case "price_desc" -> rows = productRepository.findPageByPriceDesc(categoryFilter, brandFilter, discounted, minPrice, maxPrice,
+                    cursorParts != null ? parseCursorPrice(cursorParts[0]) : null, cursorId, limit);
+            default -> throw new IllegalArgumentException("지원하지 않는 정렬 방식입니다: " + sortKey);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<ProductSummary> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            ProductSummary last = items.get(items.size() - 1);
+            String sortValue = "latest".equals(sortKey)
+                    ? last.getCreatedAt().toInstant().toString()
+                    : String.valueOf(last.getPrice());
+            nextCursor = encodeCursor(sortKey, sortValue, last.getId());
+        }
+        return new ProductPageResponse(items, nextCursor, hasNext, items.size());
     }
 
     @Transactional
@@ -130,7 +291,59 @@ public class ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("상품을 찾을 수 없습니다."));
         productRepository.delete(product);
+        catalogCache.onProductDeleted(id);
+        productSearchIndex.onProductDeleted(id);
+        productSuggester.onProductDeleted(id);
     }
 
+    private String blankToNull(String value) {
+        return (value == null || value.trim().isEmpty()) ? null : value.trim();
+    }
+
+    // 커서 형식: base64url("정렬키|정렬값|id")
+    private String encodeCursor(String sortKey, String sortValue, Long id) {
+        String raw = sortKey + "|" + sortValue + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
 
-}
\ No newline at end of file
+    private String[] decodeCursor(String cursor, String sortKey) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.");
+        }
+        String[] parts = raw.split("\\|");
+        if (parts.length != 3 || !parts[0].equals(sortKey)) {
+            throw new IllegalArgumentException("정렬 방식과 일치하지 않는 커서입니다.");
+        }
+        return new String[]{parts[1], parts[2]};
+    }
+
+    private Long parseCursorId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.");
+        }
+    }
+
+    private Integer parseCursorPrice(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.");
+        }
+    }
+
+    private Timestamp parseCursorTimestamp(String value) {
+        try {
+            return Timestamp.from(Instant.parse(value));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.");
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.company.baseballshop.service;
 
+import com.company.baseballshop.dto.ReviewFeedItem;
+import com.company.baseballshop.dto.ReviewPageResponse;
 import com.company.baseballshop.model.Product;
 import com.company.baseballshop.model.Review;
 import com.company.baseballshop.model.ReviewComment;
@@ -7,10 +9,19 @@ import com.company.baseballshop.repository.ReviewCommentRepository;
 import com.company.baseballshop.repository.ReviewRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -19,6 +30,17 @@ public class ReviewService {
 
     private final ReviewRepository reviewRepository;
     private final ReviewCommentRepository reviewCommentRepository;
+    private final ProductRatingService productRatingService;
+    private final ImagePipeline imagePipeline;
+
+    @Value("${review.page.default-size:10}")
+    private int defaultPageSize;
+
+    @Value("${review.page.max-size:50}")
+    private int maxPageSize;
+
+    @Value("${review.page.comments-per-review:3}")
+    private int commentsPerReview;
 
     public List<Review> getReviewsByNickname(String nickname) {
         log.info("닉네임으로 리뷰 조회: nickname={}", nickname);
@@ -40,8 +62,110 @@ public class ReviewService {
                 .orElseThrow(() -> new IllegalArgumentException("리뷰를 찾을 수 없습니다: id=" + id));
     }
 
+    // 상품별 리뷰 키셋 조회. sort: latest(기본), rating. 댓글은 페이지 전체를 IN 쿼리 한 번으로 채운다
+    @Transactional(readOnly = true)
+    public ReviewPageResponse getProductReviews(Long productId, String sort, String cursor, Integer size) {
+        String sortKey = (sort == null || sort.isBlank()) ? "latest" : sort;
+        int pageSize = (size == null || size <= 0) ? defaultPageSize : Math.min(size, maxPageSize);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        String[] cursorParts = decodeCursor(cursor, sortKey);
+
+        List<ReviewFeedItem> rows;
+        switch (sortKey) {
+            case "latest" -> rows = reviewRepository.findPageByProductLatest(productId,
+                    cursorParts != null ? parseCursorDateTime(cursorParts[0]) : null,
+                    cursorParts != null ? parseCursorNumber(cursorParts[1]) : null, limit);
+            case "rating" -> rows = reviewRepository.findPageByProductRating(productId,
+                    cursorParts != null ? parseCursorNumber(cursorParts[0]).intValue() : null,
+                    cursorParts != null ? parseCursorDateTime(cursorParts[1]) : null,
+                    cursorParts != null ? parseCursorNumber(cursorParts[2]) : null, limit);
+            default -> throw new IllegalArgumentException("지원하지 않는 정렬 방식입니다: " + sortKey);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<ReviewFeedItem> items = hasNext ? rows.subList(0, pageSize) : rows;
+        attachComments(items);
+
+        String nextCursor = null;
+        if (hasNext) {
+            ReviewFeedItem last = items.get(items.size() - 1);
+            nextCursor = "latest".equals(sortKey)
+                    ? encodeCursor(sortKey, last.getCreatedAt().toString(), String.valueOf(last.getId()))
+                    : encodeCursor(sortKey, String.valueOf(last.getRating()), last.getCreatedAt().toString(), String.valueOf(last.getId()));
+        }
+        return new ReviewPageResponse(items, nextCursor, hasNext, items.size());
+    }
+
+    private void attachComments(List<ReviewFeedItem> items) {
+        if (items.isEmpty() || commentsPerReview <= 0) {
+            return;
+        }
+        Map<Long, ReviewFeedItem> byId = new HashMap<>();
+        items.forEach(item -> byId.put(item.getId(), item));
+        for (Object[] row : reviewCommentRepository.findFirstCommentsByReviewIds(byId.keySet(), commentsPerReview)) {
+            ReviewFeedItem item = byId.get(((Number) row[1]).longValue());
+            if (item != null) {
+                item.addComment(new ReviewFeedItem.Comment(((Number) row[0]).longValue(), (String) row[2], (String) row[3],
+                        toLocalDateTime(row[4])), ((Number) row[5]).intValue());
+            }
+        }
+    }
+
+    // 네이티브 쿼리의 DATETIME 컬럼은 드라이버 설정에 따라 Timestamp 또는 LocalDateTime으로 온다
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    // 커서 형식: base64url("정렬키|정렬값...|id")
+    private String encodeCursor(String sortKey, String... values) {
+        String raw = sortKey + "|" + String.join("|", values);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor, String sortKey) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.");
+        }
+        String[] parts = raw.split("\\|");
+        int expected = "rating".equals(sortKey) ? 4 : 3;
+        if (parts.length != expected || !parts[0].equals(sortKey)) {
+            throw new IllegalArgumentException("정렬 방식과 일치하지 않는 커서입니다.");
+        }
+        String[] values = new String[expected - 1];
+        System.arraycopy(parts, 1, values, 0, values.length);
+        return values;
+    }
+
+    private LocalDateTime parseCursorDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.");
+        }
+    }
+
+    private Long parseCursorNumber(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.");
+        }
+    }
+
+    // 리뷰 저장과 평점 집계 증감은 같은 트랜잭션에서 처리
+    @Transactional
     public Review createReview(String nickname, String content, Long productId, String imageUrl, Integer rating) {
         log.info("리뷰 생성 요청: nickname={}, productId={}, rating={}", nickname, productId, rating);
+        validateRating(rating);
 
         Review review = new Review();
         review.setNickname(nickname);
@@ -53,25 +177,35 @@ public class ReviewService {
         review.setImageUrl(imageUrl);
 
         Review savedReview = reviewRepository.save(review);
+        productRatingService.onReviewCreated(productId, rating);
+        imagePipeline.submitReview(savedReview.getId(), imageUrl);
         log.info("리뷰 생성 성공: id={}", savedReview.getId());
         return savedReview;
     }
 
+    @Transactional
     public Review updateReview(Long id, String nickname, String content, Integer rating, String imageUrl) {
+        validateRating(rating);
         Review review = reviewRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("리뷰를 찾을 수 없습니다."));
         if (!review.getNickname().equals(nickname)) {
             throw new IllegalArgumentException("본인이 작성한 리뷰만 수정할 수 있습니다.");
         }
+        if (review.getProduct() != null) {
+            productRatingService.onReviewRatingChanged(review.getProduct().getId(), review.getRating(), rating);
+        }
         review.setContent(content);
         review.setRating(rating);
         review.setUpdatedAt(LocalDateTime.now());
         if (imageUrl != null) {
             review.setImageUrl(imageUrl);
+            review.setImageVariants(null);
+            imagePipeline.submitReview(id, imageUrl);
         }
         return reviewRepository.save(review);
     }
 
+    @Transactional
     public void deleteReview(Long id, String nickname, boolean isAdmin) {
         log.info("리뷰 삭제 요청: id={}, nickname={}, isAdmin={}", id, nickname, isAdmin);
 
@@ -82,10 +216,19 @@ public class ReviewService {
             throw new IllegalArgumentException("본인이 작성한 리뷰이거나 관리자만 삭제할 수 있습니다.");
         }
 
-        reviewRepository.deleteById(id);
+        if (review.getProduct() != null) {
+            productRatingService.onReviewDeleted(review.getProduct().getId(), review.getRating());
+        }
+        reviewRepository.delete(review);
         log.info("리뷰 삭제 성공: id={}", id);
     }
 
+    private void validateRating(Integer rating) {
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("평점은 1~5 사이여야 합니다.");
+        }
+    }
+
     public void updateReviewPhoto(Long reviewId, String customerId, String photoUrl) {
         log.info("리뷰 사진 업데이트: reviewId={}, customerId={}", reviewId, customerId);
 
@@ -97,7 +240,9 @@ public class ReviewService {
         }
 
         review.setImageUrl(photoUrl);
+        review.setImageVariants(null);
         reviewRepository.save(review);
+        imagePipeline.submitReview(reviewId, photoUrl);
         log.info("리뷰 사진 업데이트 성공: reviewId={}", reviewId);
     }
 
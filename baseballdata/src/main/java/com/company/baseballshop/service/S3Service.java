@@ -1,18 +1,53 @@
 package com.company.baseballshop.service;
 
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import com.company.baseballshop.dto.PresignedUploadResponse;
+import com.company.baseballshop.model.ImageObject;
+import com.company.baseballshop.repository.ImageObjectRepository;
+import com.company.baseballshop.storage.ObjectDeleteQueue;
+import com.company.baseballshop.storage.ObjectStore;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+@Slf4j
 @Service
 public class S3Service {
 
-    private final S3Client s3Client;
+    private static final String URL_PREFIX = "https://s3.ap-northeast-1.amazonaws.com/";
+    // 예전 관리자 API가 ap-northeast-2로 키를 추출하던 URL도 같은 객체로 인식한다
+    private static final String[] URL_PREFIXES = {URL_PREFIX, "https://s3.ap-northeast-2.amazonaws.com/"};
+    // 리사이즈 변형은 원본 키에서 파생: variants/{변형}/{원본 키}.jpg
+    private static final String VARIANT_PREFIX = "variants/";
+    private static final String[] VARIANT_NAMES = {"thumbnail", "list", "detail"};
+    // 상품 사진은 내용 해시를 키로 쓴다: products/sha256/{해시}.{확장자}
+    private static final String PRODUCT_HASH_PREFIX = "products/sha256/";
+    private static final String IMMUTABLE_CACHE = "public, max-age=31536000, immutable";
+
+    private final ObjectStore objectStore;
+    private final ObjectDeleteQueue deleteQueue;
+    private final ImageObjectRepository imageObjectRepository;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${customer.bucket.name}")
     private String customerBucketName;
@@ -20,45 +55,322 @@ public class S3Service {
     @Value("${product.bucket.name}")
     private String productBucketName;
 
-    public S3Service(S3Client s3Client) {
-        this.s3Client = s3Client;
+    @Value("${storage.upload.max-bytes:5242880}")
+    private long maxUploadBytes;
+
+    @Value("${storage.upload.presign-ttl-seconds:300}")
+    private long presignTtlSeconds;
+
+    public S3Service(ObjectStore objectStore, ObjectDeleteQueue deleteQueue, ImageObjectRepository imageObjectRepository,
+                     TransactionTemplate transactionTemplate) {
+        this.objectStore = objectStore;
+        this.deleteQueue = deleteQueue;
+        this.imageObjectRepository = imageObjectRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // 버킷/키로 가리키는 우리 S3 객체 위치
+    public record ObjectLocation(String bucket, String key) {
     }
 
     // 고객 사진 업로드
-    public String uploadCustomerPhoto(String key, File file) {
-        PutObjectRequest request = PutObjectRequest.builder()
-                .bucket(customerBucketName)
-                .key(key)
-                .build();
-        s3Client.putObject(request, RequestBody.fromFile(file));
-        return "https://s3.ap-northeast-1.amazonaws.com/" + customerBucketName + "/" + key;
+    public String uploadCustomerPhoto(String key, MultipartFile file) throws IOException {
+        upload(customerBucketName, key, file);
+        return url(customerBucketName, key);
+    }
+
+    // 상품 사진 업로드. 내용 해시로 키를 정하므로 같은 사진을 다시 올리면 PUT 없이 기존 URL에 참조만 더한다
+    public String uploadProductPhoto(MultipartFile file) throws IOException {
+        String hash = sha256(file);
+        String existingKey = acquireExisting(hash);
+        if (existingKey != null) {
+            log.info("중복 상품 사진 업로드 생략: key={}", existingKey);
+            return url(productBucketName, existingKey);
+        }
+
+        // 같은 내용은 같은 키가 되므로 동시에 같은 사진이 올라와도 PUT 결과는 동일하다
+        String key = PRODUCT_HASH_PREFIX + hash + extension(file);
+        upload(productBucketName, key, file);
+        transactionTemplate.executeWithoutResult(status -> imageObjectRepository.register(
+                productBucketName, key, hash, file.getContentType(), file.getSize()));
+        return url(productBucketName, key);
+    }
+
+    // 상품 사진 바로 올리기 URL 발급. 클라이언트가 계산한 SHA-256을 서명에 넣어 S3가 내용과 키를 맞춰 검증한다
+    public PresignedUploadResponse presignProductPhoto(String contentType, Long size, String sha256) {
+        validateImage(contentType, size);
+        String hash = sha256 != null ? sha256.toLowerCase(Locale.ROOT) : "";
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("sha256 값이 올바르지 않습니다.");
+        }
+        Optional<ImageObject> existing = imageObjectRepository.findByBucketAndContentHash(productBucketName, hash);
+        if (existing.isPresent()) {
+            String key = existing.get().getObjectKey();
+            return new PresignedUploadResponse(key, url(productBucketName, key), null, Map.of(), null, true);
+        }
+        String key = PRODUCT_HASH_PREFIX + hash + extensionOf(contentType);
+        String checksum = Base64.getEncoder().encodeToString(HexFormat.of().parseHex(hash));
+        ObjectStore.PresignedUpload upload = objectStore.presignPut(productBucketName, key, contentType, size, checksum,
+                Duration.ofSeconds(presignTtlSeconds));
+        return new PresignedUploadResponse(key, url(productBucketName, key), upload.url(), upload.headers(),
+                upload.expiresAt(), false);
+    }
+
+    // 바로 올리기 완료. 객체를 확인해 해시 색인에 참조를 더하고 URL을 돌려준다
+    public String completeProductPhoto(String key) throws IOException {
+        if (key == null || !key.matches(PRODUCT_HASH_PREFIX + "[0-9a-f]{64}(\\.[a-z0-9]{1,5})?")) {
+            throw new IllegalArgumentException("잘못된 업로드 키입니다.");
+        }
+        String hash = key.substring(PRODUCT_HASH_PREFIX.length(), PRODUCT_HASH_PREFIX.length() + 64);
+        String existingKey = acquireExisting(hash);
+        if (existingKey != null) {
+            // 같은 내용이 다른 확장자로 올라온 경우: 새로 올린 쪽은 쓰지 않으므로 지운다
+            if (!existingKey.equals(key)) {
+                deleteQueue.enqueue(productBucketName, List.of(key));
+            }
+            return url(productBucketName, existingKey);
+        }
+        ObjectStore.ObjectInfo info = verifyUploaded(productBucketName, key);
+        transactionTemplate.executeWithoutResult(status -> imageObjectRepository.register(
+                productBucketName, key, hash, info.contentType(), info.contentLength()));
+        log.info("상품 사진 바로 올리기 완료: key={}, size={}", key, info.contentLength());
+        return url(productBucketName, key);
+    }
+
+    // 고객 사진 바로 올리기 URL 발급. 키는 keyPrefix 아래 임의 이름
+    public PresignedUploadResponse presignCustomerPhoto(String keyPrefix, String contentType, Long size) {
+        validateImage(contentType, size);
+        String key = keyPrefix + UUID.randomUUID() + extensionOf(contentType);
+        ObjectStore.PresignedUpload upload = objectStore.presignPut(customerBucketName, key, contentType, size, null,
+                Duration.ofSeconds(presignTtlSeconds));
+        return new PresignedUploadResponse(key, url(customerBucketName, key), upload.url(), upload.headers(),
+                upload.expiresAt(), false);
+    }
+
+    public String completeCustomerPhoto(String key) throws IOException {
+        ObjectStore.ObjectInfo info = verifyUploaded(customerBucketName, key);
+        log.info("고객 사진 바로 올리기 완료: key={}, size={}", key, info.contentLength());
+        return url(customerBucketName, key);
+    }
+
+    private void validateImage(String contentType, Long size) {
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new IllegalArgumentException("이미지 파일만 업로드 가능합니다.");
+        }
+        if (size == null || size <= 0) {
+            throw new IllegalArgumentException("파일 크기가 올바르지 않습니다.");
+        }
+        if (size > maxUploadBytes) {
+            throw new IllegalArgumentException("파일 크기는 " + (maxUploadBytes / (1024 * 1024)) + "MB를 초과할 수 없습니다.");
+        }
+    }
+
+    // 클라이언트가 서명 URL로 올린 객체를 다시 확인. 조건에 맞지 않으면 지우고 거절한다
+    private ObjectStore.ObjectInfo verifyUploaded(String bucket, String key) throws IOException {
+        ObjectStore.ObjectInfo info = await(objectStore.head(bucket, key));
+        if (info == null) {
+            throw new IllegalArgumentException("업로드된 파일을 찾을 수 없습니다.");
+        }
+        if (info.contentLength() > maxUploadBytes || info.contentType() == null || !info.contentType().startsWith("image/")) {
+            log.warn("바로 올리기 검증 실패: key={}, size={}, contentType={}", key, info.contentLength(), info.contentType());
+            deleteQueue.enqueue(bucket, List.of(key));
+            throw new IllegalArgumentException("업로드된 파일이 이미지 조건에 맞지 않습니다.");
+        }
+        return info;
+    }
+
+    // 같은 내용이 이미 색인에 있으면 참조를 더하고 그 키를, 없으면 null
+    private String acquireExisting(String hash) {
+        return transactionTemplate.execute(status -> {
+            if (imageObjectRepository.acquire(productBucketName, hash) == 0) {
+                return null;
+            }
+            return imageObjectRepository.findByBucketAndContentHash(productBucketName, hash)
+                    .map(ImageObject::getObjectKey)
+                    .orElse(null);
+        });
+    }
+
+    private String extensionOf(String contentType) {
+        return switch (contentType.toLowerCase(Locale.ROOT)) {
+            case "image/jpeg", "image/jpg" -> ".jpg";
+            case "image/png" -> ".png";
+            case "image/gif" -> ".gif";
+            case "image/webp" -> ".webp";
+            default -> "";
+        };
+    }
+
+    // 업로드 전에 멀티파트 본문을 한 번 흘려 읽어 해시만 계산 (본문을 메모리에 모으지 않음)
+    private String sha256(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            while (in.read(buffer) != -1) {
+                // 읽는 동안 digest가 갱신된다
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String extension(MultipartFile file) {
+        String name = file.getOriginalFilename();
+        int dot = name != null ? name.lastIndexOf('.') : -1;
+        if (dot < 0) {
+            return "";
+        }
+        String ext = name.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return ext.matches("[a-z0-9]{1,5}") ? "." + ext : "";
+    }
+
+    // 임시 파일 없이 멀티파트 스트림을 그대로 저장소로 전송. 길이를 알려줘야 SDK가 본문을 메모리에 버퍼링하지 않는다
+    private void upload(String bucket, String key, MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            await(objectStore.put(bucket, key, in, file.getSize(), file.getContentType(), null));
+        }
+    }
+
+    // 이미지 변형 저장. 키가 원본에서 파생되고 내용이 바뀌지 않으므로 장기 캐시를 허용한다
+    public String putVariant(ObjectLocation original, String variant, byte[] data, String contentType) {
+        String key = variantKey(original.key(), variant);
+        try {
+            await(objectStore.put(original.bucket(), key, data, contentType, IMMUTABLE_CACHE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return url(original.bucket(), key);
+    }
+
+    public InputStream openObject(ObjectLocation location) throws IOException {
+        return new ByteArrayInputStream(await(objectStore.get(location.bucket(), location.key())));
     }
 
-    // 상품 사진 업로드
-    public String uploadProductPhoto(String key, File file) {
-        PutObjectRequest request = PutObjectRequest.builder()
-                .bucket(productBucketName)
-                .key(key)
-                .build();
-        s3Client.putObject(request, RequestBody.fromFile(file));
-        return "https://s3.ap-northeast-1.amazonaws.com/" + productBucketName + "/" + key;
+    // 우리 버킷의 객체 URL이면 위치를 돌려주고, 외부 이미지 URL이면 null
+    public ObjectLocation locate(String url) {
+        if (url == null) {
+            return null;
+        }
+        for (String urlPrefix : URL_PREFIXES) {
+            for (String bucket : new String[]{productBucketName, customerBucketName}) {
+                String prefix = urlPrefix + bucket + "/";
+                if (url.startsWith(prefix) && url.length() > prefix.length()) {
+                    return new ObjectLocation(bucket, url.substring(prefix.length()));
+                }
+            }
+        }
+        return null;
+    }
+
+    // 상품 버킷 객체 URL이면 키, 아니면 null
+    public String productKeyOf(String url) {
+        ObjectLocation location = locate(url);
+        return location != null && location.bucket().equals(productBucketName) ? location.key() : null;
+    }
+
+    public String customerKeyOf(String url) {
+        ObjectLocation location = locate(url);
+        return location != null && location.bucket().equals(customerBucketName) ? location.key() : null;
+    }
+
+    // DB에 저장됐을 수 있는 이 객체의 URL 표기 전부
+    public List<String> urlsOf(String bucket, String key) {
+        List<String> urls = new ArrayList<>(URL_PREFIXES.length);
+        for (String prefix : URL_PREFIXES) {
+            urls.add(prefix + bucket + "/" + key);
+        }
+        return urls;
+    }
+
+    // 변형 키(variants/{변형}/{원본 키}.jpg)면 원본 키, 아니면 그대로
+    public String originalKeyOf(String key) {
+        for (String variant : VARIANT_NAMES) {
+            String prefix = VARIANT_PREFIX + variant + "/";
+            if (key.startsWith(prefix) && key.endsWith(".jpg")) {
+                return key.substring(prefix.length(), key.length() - ".jpg".length());
+            }
+        }
+        return key;
+    }
+
+    public List<String> buckets() {
+        return List.of(productBucketName, customerBucketName);
     }
 
     // 고객 사진 삭제
     public void deleteCustomerPhoto(String key) {
-        DeleteObjectRequest request = DeleteObjectRequest.builder()
-                .bucket(customerBucketName)
-                .key(key)
-                .build();
-        s3Client.deleteObject(request);
+        delete(customerBucketName, key);
     }
 
-    // 상품 사진 삭제
+    // 상품 사진 참조 해제. 해시 색인에 있는 객체는 참조가 0이 될 때만 지우고, 색인 이전의 객체는 바로 지운다
     public void deleteProductPhoto(String key) {
-        DeleteObjectRequest request = DeleteObjectRequest.builder()
-                .bucket(productBucketName)
-                .key(key)
-                .build();
-        s3Client.deleteObject(request);
+        Boolean indexed = transactionTemplate.execute(status -> {
+            Optional<ImageObject> found = imageObjectRepository.findForUpdate(productBucketName, key);
+            if (found.isEmpty()) {
+                return false;
+            }
+            ImageObject object = found.get();
+            if (object.getRefCount() > 1) {
+                object.setRefCount(object.getRefCount() - 1);
+                log.info("상품 사진 참조 해제: key={}, refCount={}", key, object.getRefCount());
+                return true;
+            }
+            // 행 잠금을 쥔 채로 지워야 같은 내용의 동시 업로드가 삭제될 객체를 재사용하지 않는다 (대기열을 거치지 않음)
+            List<String> failed = objectStore.deleteAll(productBucketName, withVariants(key)).join();
+            if (!failed.isEmpty()) {
+                throw new IllegalStateException("상품 사진 삭제 실패: key=" + key);
+            }
+            imageObjectRepository.delete(object);
+            log.info("상품 사진 삭제 (참조 없음): key={}", key);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(indexed)) {
+            delete(productBucketName, key);
+        }
+    }
+
+    // 원본과 함께 파생된 변형도 삭제 대기열에 넣는다 (변형이 없으면 S3가 그냥 무시)
+    private void delete(String bucket, String key) {
+        deleteQueue.enqueue(bucket, withVariants(key));
+    }
+
+    private List<String> withVariants(String key) {
+        List<String> keys = new ArrayList<>(VARIANT_NAMES.length + 1);
+        keys.add(key);
+        for (String variant : VARIANT_NAMES) {
+            keys.add(variantKey(key, variant));
+        }
+        return keys;
+    }
+
+    // 업로드/조회는 호출자가 결과를 바로 써야 하므로 기다리고, 비동기 예외를 원래 형태로 풀어 던진다
+    private <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private String variantKey(String key, String variant) {
+        return VARIANT_PREFIX + variant + "/" + key + ".jpg";
+    }
+
+    private String url(String bucket, String key) {
+        return URL_PREFIX + bucket + "/" + key;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,179 @@
+package com.company.baseballshop.service;
+
+import com.company.baseballshop.model.StockReservation;
+import com.company.baseballshop.repository.OrderRepository;
+import com.company.baseballshop.repository.ProductRepository;
+import com.company.baseballshop.repository.StockReservationBatchRepository;
+import com.company.baseballshop.repository.StockReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// 결제 대기 주문의 재고 예약. 차감은 조건부 UPDATE 한 문장으로 처리해 행 잠금을 짧게 유지한다
+@Slf4j
+@Service
+public class StockReservationService {
+
+    private final ProductRepository productRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final FlashSaleService flashSaleService;
+    private final StockReservationBatchRepository stockReservationBatchRepository;
+
+    @Value("${stock.reservation.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${stock.reservation.sweep-batch-size:100}")
+    private int sweepBatchSize;
+
+    public StockReservationService(ProductRepository productRepository,
+                                   StockReservationRepository stockReservationRepository,
+                                   OrderRepository orderRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   FlashSaleService flashSaleService,
+                                   StockReservationBatchRepository stockReservationBatchRepository) {
+        this.productRepository = productRepository;
+        this.stockReservationRepository = stockReservationRepository;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.flashSaleService = flashSaleService;
+        this.stockReservationBatchRepository = stockReservationBatchRepository;
+    }
+
+    // 주문 상품별 수량만큼 재고 예약. 하나라도 부족하면 예외 -> 호출 트랜잭션 전체 롤백
+    @Transactional
+    public void reserve(Long orderId, Map<Long, Integer> quantities) {
+        // 상품 id 순으로 차감해 동시 주문 간 교착 상태를 피한다
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(ttlMinutes);
+        List<StockReservation> reservations = new ArrayList<>(sorted.size());
+
+        List<Map.Entry<Long, Integer>> dbLines = new ArrayList<>(sorted.size());
+
+        for (Map.Entry<Long, Integer> entry : sorted.entrySet()) {
+            // 플래시 세일 상품은 DB 대신 메모리 카운터에서 차감
+            FlashSaleService.ClaimResult claim = flashSaleService.tryClaim(entry.getKey(), entry.getValue());
+            if (claim == FlashSaleService.ClaimResult.SOLD_OUT) {
+                throw outOfStock(orderId, entry);
+            }
+            boolean flashSale = claim == FlashSaleService.ClaimResult.CLAIMED;
+            if (flashSale) {
+                returnClaimOnRollback(entry.getKey(), entry.getValue());
+            } else {
+                dbLines.add(entry);
+            }
+            StockReservation reservation = new StockReservation();
+            reservation.setOrderId(orderId);
+            reservation.setProductId(entry.getKey());
+            reservation.setQuantity(entry.getValue());
+            reservation.setStatus(StockReservation.HELD);
+            reservation.setFlashSale(flashSale);
+            reservation.setExpiresAt(expiresAt);
+            reservations.add(reservation);
+        }
+
+        // 조건부 차감을 배치 한 번으로. 하나라도 0건이면 재고 부족
+        int[] updated = stockReservationBatchRepository.decrementAll(dbLines);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] != 1) {
+                throw outOfStock(orderId, dbLines.get(i));
+            }
+        }
+        stockReservationBatchRepository.insertAll(reservations);
+        log.info("재고 예약 완료: orderId={}, lines={}", orderId, reservations.size());
+    }
+
+    private ResponseStatusException outOfStock(Long orderId, Map.Entry<Long, Integer> entry) {
+        log.warn("재고 부족: orderId={}, productId={}, quantity={}", orderId, entry.getKey(), entry.getValue());
+        return new ResponseStatusException(HttpStatus.CONFLICT, "재고가 부족합니다: productId=" + entry.getKey());
+    }
+
+    // 결제 완료: 예약을 확정. 확정된 예약 건수를 반환 (0이면 이미 만료/해제된 주문)
+    @Transactional
+    public int commit(Long orderId) {
+        int committed = stockReservationRepository.transitionByOrderId(orderId, StockReservation.HELD, StockReservation.COMMITTED);
+        log.info("재고 예약 확정: orderId={}, lines={}", orderId, committed);
+        return committed;
+    }
+
+    // 이 주문으로 잡힌 예약이 있었는지 (예약 도입 이전 주문은 false)
+    public boolean hasReservations(Long orderId) {
+        return stockReservationRepository.existsByOrderId(orderId);
+    }
+
+    // 결제 실패/만료: 예약 해제 후 재고 복구. 이미 처리된 예약은 건너뛴다
+    @Transactional
+    public int release(Long orderId) {
+        int released = 0;
+        for (StockReservation reservation : stockReservationRepository.findByOrderIdAndStatus(orderId, StockReservation.HELD)) {
+            if (stockReservationRepository.transition(reservation.getId(), StockReservation.HELD, StockReservation.RELEASED) == 1) {
+                // 플래시 세일이 이미 끝났다면 남은 카운터 재고만 DB로 돌아갔으므로 이 수량은 DB 재고로 복구
+                if (!reservation.isFlashSale()
+                        || !flashSaleService.release(reservation.getProductId(), reservation.getQuantity())) {
+                    productRepository.incrementStock(reservation.getProductId(), reservation.getQuantity());
+                }
+                released++;
+            }
+        }
+        if (released > 0) {
+            log.info("재고 예약 해제: orderId={}, lines={}", orderId, released);
+        }
+        return released;
+    }
+
+    // 메모리 카운터 차감은 트랜잭션 롤백으로 되돌려지지 않으므로 직접 반환한다
+    private void returnClaimOnRollback(Long productId, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED || flashSaleService.release(productId, quantity)) {
+                    return;
+                }
+                transactionTemplate.executeWithoutResult(tx -> productRepository.incrementStock(productId, quantity));
+            }
+        });
+    }
+
+    // 유효 시간이 지난 예약을 해제하고, 아직 결제 대기 중인 주문은 EXPIRED 처리
+    // 결제 키가 등록된 주문은 결제가 끝났을 수 있으므로 재고를 잡아 둔 채 정산 작업에 맡긴다
+    @Scheduled(fixedDelayString = "${stock.reservation.sweep-interval-ms:60000}")
+    public void releaseExpired() {
+        List<Long> orderIds = stockReservationRepository.findExpiredOrderIds(
+                LocalDateTime.now(), PageRequest.of(0, sweepBatchSize));
+        for (Long orderId : orderIds) {
+            try {
+                // 결제 검증/정산과 같은 순서(주문 행 -> 예약 행)로 잠가 교착을 피한다
+                transactionTemplate.executeWithoutResult(status -> {
+                    orderRepository.expireUnpaid(orderId);
+                    // 조회 이후 결제 키가 등록됐다면 아직 PENDING이므로 건드리지 않는다
+                    if (!orderRepository.existsByIdAndStatus(orderId, "PENDING")) {
+                        release(orderId);
+                    }
+                });
+            } catch (Exception e) {
+                log.error("만료 예약 해제 실패: orderId={}, error={}", orderId, e.getMessage());
+            }
+        }
+        if (!orderIds.isEmpty()) {
+            log.info("만료 예약 정리: orders={}", orderIds.size());
+        }
+    }
+}
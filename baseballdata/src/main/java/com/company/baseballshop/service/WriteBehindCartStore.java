@@ -0,0 +1,613 @@
+package com.company.baseballshop.service;
+
+import com.company.baseballshop.dto.CartItemDTO;
+import com.company.baseballshop.dto.ProductSummary;
+import com.company.baseballshop.repository.CartItemBatchRepository;
+import com.company.baseballshop.repository.CartItemRepository;
+import com.company.baseballshop.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// 장바구니 write-behind 저장소 (cart.write-behind.enabled=true 일 때만 사용)
+// 수량 변경은 사용자별 메모리 장바구니에 모아 두었다가 주기적으로, 결제 직전에, 종료 시에 cart_items로 일괄 반영한다.
+// 조회도 같은 메모리 장바구니 + 카탈로그 스냅샷으로 처리한다.
+// 장바구니가 인스턴스 메모리에 있으므로 사용자 요청이 같은 인스턴스로 가도록(스티키 세션) 배포해야 한다.
+@Slf4j
+@Component
+public class WriteBehindCartStore {
+
+    private static final String JOURNAL_FILE = "cart-journal.log";
+
+    private final CartItemRepository cartItemRepository;
+    private final CartItemBatchRepository cartItemBatchRepository;
+    private final UserRepository userRepository;
+    private final CatalogCache catalogCache;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, UserCart> carts = new ConcurrentHashMap<>();
+    // 아직 DB에 없는 줄에 부여하는 임시 id (음수)
+    private final AtomicLong syntheticIds = new AtomicLong();
+    // 변경은 read lock, 플러시 스냅샷 + 저널 교체는 write lock
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private final Object journalLock = new Object();
+    private final List<Path> rotatedJournals = new ArrayList<>();
+    private FileChannel journal;
+
+    @Value("${cart.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.write-behind.idle-evict-minutes:30}")
+    private long idleEvictMinutes;
+
+    // 비어 있으면 저널 없이 메모리에만 보관 (비정상 종료 시 마지막 플러시 이후 변경 유실)
+    @Value("${cart.write-behind.journal-dir:}")
+    private String journalDir;
+
+    // always: 변경마다 fsync, interval: 플러시 주기마다 fsync, none: OS에 맡김
+    @Value("${cart.write-behind.fsync:interval}")
+    private String fsyncMode;
+
+    public WriteBehindCartStore(CartItemRepository cartItemRepository,
+                                CartItemBatchRepository cartItemBatchRepository,
+                                UserRepository userRepository,
+                                CatalogCache catalogCache,
+                                TransactionTemplate transactionTemplate) {
+        this.cartItemRepository = cartItemRepository;
+        this.cartItemBatchRepository = cartItemBatchRepository;
+        this.userRepository = userRepository;
+        this.catalogCache = catalogCache;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    static final class UserCart {
+        private final String email;
+        private final Long userId;
+        private final LinkedHashMap<Long, Line> lines = new LinkedHashMap<>(); // productId -> line
+        private final Set<Long> dirty = new HashSet<>();
+        // DB 반영은 장바구니별로 한 번에 하나만. 먼저 읽은 값이 나중 값을 덮어쓰지 않게 한다
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private volatile long lastAccess = System.currentTimeMillis();
+        private boolean evicted;
+
+        private UserCart(String email, Long userId) {
+            this.email = email;
+            this.userId = userId;
+        }
+    }
+
+    static final class Line {
+        private final long id;
+        private int quantity;
+
+        private Line(long id, int quantity) {
+            this.id = id;
+            this.quantity = quantity;
+        }
+    }
+
+    private interface CartMutation {
+        void apply(UserCart cart);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled || !journalEnabled()) {
+            return;
+        }
+        Path dir = Paths.get(journalDir);
+        Files.createDirectories(dir);
+        replayJournals(dir);
+        journal = FileChannel.open(dir.resolve(JOURNAL_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        flushAll();
+        synchronized (journalLock) {
+            closeQuietly(journal);
+            journal = null;
+        }
+    }
+
+    // ---------- 조회 ----------
+
+    // 가격/이미지/재고 여부는 카탈로그 스냅샷 기준 (스냅샷 갱신 주기만큼 늦을 수 있다)
+    public List<CartItemDTO> getLines(String email) {
+        UserCart cart = load(email);
+        List<long[]> snapshot = new ArrayList<>();
+        synchronized (cart) {
+            cart.lastAccess = System.currentTimeMillis();
+            cart.lines.forEach((productId, line) -> snapshot.add(new long[]{line.id, productId, line.quantity}));
+        }
+        CatalogSnapshot catalog = catalogCache.current();
+        List<CartItemDTO> items = new ArrayList<>(snapshot.size());
+        for (long[] row : snapshot) {
+            ProductSummary product = catalog.getById(row[1]);
+            if (product == null) {
+                continue; // 삭제된 상품
+            }
+            int quantity = (int) row[2];
+            CartItemDTO item = new CartItemDTO(row[0], product.getId(), product.getName(), product.getPrice(),
+                    product.getOriginalPrice(), product.getDiscountPercent(), product.isDiscounted(),
+                    product.getImage(), quantity, product.getStock());
+            items.add(item);
+        }
+        return items;
+    }
+
+    // ---------- 변경 ----------
+
+    public void add(String email, Long productId, int quantity) {
+        mutate(email, cart -> {
+            Line line = cart.lines.get(productId);
+            setQuantity(cart, productId, line != null ? line.quantity + quantity : quantity);
+        });
+    }
+
+    public void updateQuantity(String email, Long cartItemId, int quantity) {
+        mutate(email, cart -> setQuantity(cart, productIdOf(cart, cartItemId), quantity));
+    }
+
+    public void remove(String email, Long cartItemId) {
+        mutate(email, cart -> setQuantity(cart, productIdOf(cart, cartItemId), 0));
+    }
+
+    public void applyBatch(String email, List<CartItemBatchRepository.Line> adds,
+                           List<CartItemBatchRepository.Line> sets, List<Long> removes) {
+        mutate(email, cart -> {
+            for (CartItemBatchRepository.Line add : adds) {
+                Line line = cart.lines.get(add.productId());
+                setQuantity(cart, add.productId(), line != null ? line.quantity + add.quantity() : add.quantity());
+            }
+            for (CartItemBatchRepository.Line set : sets) {
+                setQuantity(cart, set.productId(), set.quantity());
+            }
+            for (Long productId : removes) {
+                setQuantity(cart, productId, 0);
+            }
+        });
+    }
+
+    // 결제로 주문에 옮겨진 상품을 메모리 장바구니에서도 제거 (DB 행은 결제 트랜잭션에서 이미 삭제됨)
+    // 결제 중에 수량을 바꾼 줄은 남겨 두어 다음 플러시에 새 줄로 저장되게 한다
+    public void removeProducts(String email, Map<Long, Integer> orderedQuantities) {
+        UserCart cart = carts.get(email);
+        if (cart == null) {
+            return;
+        }
+        mutate(email, c -> orderedQuantities.forEach((productId, quantity) -> {
+            Line line = c.lines.get(productId);
+            if (line != null && line.quantity == quantity) {
+                setQuantity(c, productId, 0);
+            }
+        }));
+    }
+
+    private void mutate(String email, CartMutation mutation) {
+        flushLock.readLock().lock();
+        try {
+            while (true) {
+                UserCart cart = load(email);
+                synchronized (cart) {
+                    if (cart.evicted) {
+                        continue; // 방금 메모리에서 내려간 장바구니면 다시 읽는다
+                    }
+                    cart.lastAccess = System.currentTimeMillis();
+                    mutation.apply(cart);
+                    return;
+                }
+            }
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    // 최종 수량(0이면 삭제)만 기록하므로 같은 상품을 여러 번 눌러도 플러시는 한 번
+    private void setQuantity(UserCart cart, Long productId, int quantity) {
+        if (quantity <= 0) {
+            if (cart.lines.remove(productId) == null) {
+                return;
+            }
+        } else {
+            Line line = cart.lines.get(productId);
+            if (line == null) {
+                cart.lines.put(productId, new Line(syntheticIds.decrementAndGet(), quantity));
+            } else if (line.quantity == quantity) {
+                return;
+            } else {
+                line.quantity = quantity;
+            }
+        }
+        cart.dirty.add(productId);
+        appendJournal(cart.email, productId, Math.max(quantity, 0));
+    }
+
+    private Long productIdOf(UserCart cart, Long cartItemId) {
+        for (Map.Entry<Long, Line> entry : cart.lines.entrySet()) {
+            if (entry.getValue().id == cartItemId) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalArgumentException("장바구니 항목을 찾을 수 없습니다.");
+    }
+
+    private UserCart load(String email) {
+        return carts.computeIfAbsent(email, key -> {
+            Long userId = userRepository.findIdByEmail(key)
+                    .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
+            UserCart cart = new UserCart(key, userId);
+            for (CartItemDTO row : cartItemRepository.findCartLinesByEmail(key)) {
+                cart.lines.put(row.getProductId(), new Line(row.getId(), row.getQuantity()));
+            }
+            return cart;
+        });
+    }
+
+    // ---------- 플러시 ----------
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:1000}")
+    public void flushAll() {
+        if (!enabled) {
+            return;
+        }
+        Map<UserCart, Set<Long>> pending = new HashMap<>();
+        flushLock.writeLock().lock();
+        try {
+            for (UserCart cart : carts.values()) {
+                Set<Long> changed = drainDirty(cart);
+                if (!changed.isEmpty()) {
+                    pending.put(cart, changed);
+                }
+            }
+            if (!pending.isEmpty()) {
+                rotateJournal();
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+
+        // 교체 전에 flush(email)이 가져간 변경도 끝나기를 기다리도록 모든 장바구니의 쓰기 잠금을 거친다
+        boolean allWritten = true;
+        for (UserCart cart : carts.values()) {
+            cart.writeLock.lock();
+            try {
+                Set<Long> changed = pending.remove(cart);
+                if (changed != null) {
+                    allWritten &= write(cart, changed);
+                }
+            } finally {
+                cart.writeLock.unlock();
+            }
+        }
+        // 그 사이 메모리에서 내려간 장바구니
+        for (Map.Entry<UserCart, Set<Long>> entry : pending.entrySet()) {
+            entry.getKey().writeLock.lock();
+            try {
+                allWritten &= write(entry.getKey(), entry.getValue());
+            } finally {
+                entry.getKey().writeLock.unlock();
+            }
+        }
+        // 모든 변경이 DB에 반영된 뒤에만 이전 저널을 지운다 (실패한 변경은 write에서 새 저널에 다시 기록됨)
+        if (allWritten) {
+            deleteRotatedJournals();
+        }
+        evictIdle();
+    }
+
+    // 결제 직전 등 특정 사용자의 변경을 바로 반영해야 할 때
+    public void flush(String email) {
+        if (!enabled) {
+            return;
+        }
+        UserCart cart = carts.get(email);
+        if (cart == null) {
+            return;
+        }
+        // 쓰기 잠금을 먼저 잡고 flushLock을 잡는다 (flushAll은 flushLock을 놓은 뒤에 쓰기 잠금을 잡으므로 교착 없음)
+        cart.writeLock.lock();
+        try {
+            Set<Long> changed;
+            flushLock.readLock().lock();
+            try {
+                changed = drainDirty(cart);
+            } finally {
+                flushLock.readLock().unlock();
+            }
+            if (!changed.isEmpty() && !write(cart, changed)) {
+                throw new IllegalStateException("장바구니를 저장하지 못했습니다. 잠시 후 다시 시도해주세요.");
+            }
+        } finally {
+            cart.writeLock.unlock();
+        }
+    }
+
+    private Set<Long> drainDirty(UserCart cart) {
+        synchronized (cart) {
+            Set<Long> changed = new HashSet<>(cart.dirty);
+            cart.dirty.clear();
+            return changed;
+        }
+    }
+
+    // 쓰기 잠금 안에서 현재 수량을 읽어 저장하므로, 늦게 도착한 쓰기도 항상 가장 최근 값을 쓴다
+    private boolean write(UserCart cart, Set<Long> changed) {
+        Map<Long, Integer> changes = new HashMap<>();
+        synchronized (cart) {
+            for (Long productId : changed) {
+                Line line = cart.lines.get(productId);
+                changes.put(productId, line != null ? line.quantity : 0);
+            }
+        }
+        return write(cart, changes);
+    }
+
+    private boolean write(UserCart cart, Map<Long, Integer> changes) {
+        List<CartItemBatchRepository.Line> sets = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        changes.forEach((productId, quantity) -> {
+            if (quantity > 0) {
+                sets.add(new CartItemBatchRepository.Line(productId, quantity));
+            } else {
+                deletes.add(productId);
+            }
+        });
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                cartItemBatchRepository.setAll(cart.userId, sets);
+                cartItemBatchRepository.deleteAll(cart.userId, deletes);
+            });
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // 삭제된 상품처럼 다시 시도해도 저장될 수 없는 줄이 섞여 있다 -> 줄 단위로 나눠 그 줄만 버린다
+            return writeEachLine(cart, changes);
+        } catch (Exception e) {
+            log.error("장바구니 플러시 실패: user={}, lines={}, error={}", cart.email, changes.size(), e.getMessage());
+            retryLater(cart, changes.keySet());
+            return false;
+        }
+    }
+
+    private boolean writeEachLine(UserCart cart, Map<Long, Integer> changes) {
+        boolean written = true;
+        for (Map.Entry<Long, Integer> change : changes.entrySet()) {
+            Long productId = change.getKey();
+            int quantity = change.getValue();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (quantity > 0) {
+                        cartItemBatchRepository.setAll(cart.userId, List.of(new CartItemBatchRepository.Line(productId, quantity)));
+                    } else {
+                        cartItemBatchRepository.deleteAll(cart.userId, List.of(productId));
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                log.warn("저장할 수 없는 장바구니 항목 제외: user={}, productId={}, quantity={}, error={}",
+                        cart.email, productId, quantity, e.getMessage());
+                drop(cart, productId);
+            } catch (Exception e) {
+                log.error("장바구니 플러시 실패: user={}, productId={}, error={}", cart.email, productId, e.getMessage());
+                retryLater(cart, Set.of(productId));
+                written = false;
+            }
+        }
+        return written;
+    }
+
+    // 다음 주기에 다시 시도 (그 사이 바뀐 값이 있으면 최신 값으로 저장된다)
+    // 이 변경이 담긴 저널은 이미 교체됐을 수 있으므로 현재 저널에 다시 남긴다
+    private void retryLater(UserCart cart, Set<Long> productIds) {
+        synchronized (cart) {
+            cart.dirty.addAll(productIds);
+            for (Long productId : productIds) {
+                Line line = cart.lines.get(productId);
+                appendJournal(cart.email, productId, line != null ? line.quantity : 0);
+            }
+        }
+    }
+
+    // 메모리에서도 빼고 저널에 0을 남겨 재시작 후 복구 때 다시 시도하지 않게 한다
+    private void drop(UserCart cart, Long productId) {
+        synchronized (cart) {
+            cart.lines.remove(productId);
+            cart.dirty.remove(productId);
+            appendJournal(cart.email, productId, 0);
+        }
+    }
+
+    private void evictIdle() {
+        long threshold = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleEvictMinutes);
+        for (UserCart cart : carts.values()) {
+            // 반영 중인 장바구니는 다음 주기로 미룬다
+            if (!cart.writeLock.tryLock()) {
+                continue;
+            }
+            try {
+                synchronized (cart) {
+                    if (cart.dirty.isEmpty() && cart.lastAccess < threshold) {
+                        cart.evicted = true;
+                        carts.remove(cart.email, cart);
+                    }
+                }
+            } finally {
+                cart.writeLock.unlock();
+            }
+        }
+    }
+
+    // ---------- 저널 ----------
+
+    private boolean journalEnabled() {
+        return journalDir != null && !journalDir.isBlank();
+    }
+
+    private void appendJournal(String email, Long productId, int quantity) {
+        synchronized (journalLock) {
+            if (journal == null) {
+                return;
+            }
+            String entry = email + "\t" + productId + "\t" + quantity + "\n";
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(entry.getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    journal.write(buffer);
+                }
+                if ("always".equals(fsyncMode)) {
+                    journal.force(false);
+                }
+            } catch (IOException e) {
+                log.error("장바구니 저널 기록 실패: {}", e.getMessage());
+            }
+        }
+    }
+
+    // 현재 저널을 닫고 새 파일로 교체. 교체된 파일은 DB 반영이 끝난 뒤 삭제
+    private void rotateJournal() {
+        synchronized (journalLock) {
+            if (journal == null) {
+                return;
+            }
+            Path dir = Paths.get(journalDir);
+            Path current = dir.resolve(JOURNAL_FILE);
+            Path rotated = dir.resolve(JOURNAL_FILE + "." + System.nanoTime());
+            try {
+                if (!"none".equals(fsyncMode)) {
+                    journal.force(false);
+                }
+                journal.close();
+                Files.move(current, rotated);
+                rotatedJournals.add(rotated);
+            } catch (IOException e) {
+                log.error("장바구니 저널 교체 실패: {}", e.getMessage());
+            }
+            try {
+                journal = FileChannel.open(current,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                log.error("장바구니 저널을 열 수 없습니다. 저널 없이 계속합니다: {}", e.getMessage());
+                journal = null;
+            }
+        }
+    }
+
+    private void deleteRotatedJournals() {
+        synchronized (journalLock) {
+            for (Path path : rotatedJournals) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("장바구니 저널 삭제 실패: path={}, error={}", path, e.getMessage());
+                }
+            }
+            rotatedJournals.clear();
+        }
+    }
+
+    // 비정상 종료로 남은 저널을 순서대로 읽어 사용자/상품별 마지막 수량을 DB에 반영
+    // 저장할 수 없는 항목(삭제된 상품 등)은 write에서 건너뛰고, DB에 닿지 못할 때만 기동을 멈춘다
+    private void replayJournals(Path dir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(dir)) {
+            files = stream.filter(path -> path.getFileName().toString().startsWith(JOURNAL_FILE))
+                    .sorted((a, b) -> Long.compare(journalOrder(a), journalOrder(b)))
+                    .toList();
+        }
+        if (files.isEmpty()) {
+            return;
+        }
+        Map<String, Map<Long, Integer>> latest = new LinkedHashMap<>();
+        for (Path file : files) {
+            for (String entry : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] parts = entry.split("\t");
+                if (parts.length != 3) {
+                    continue; // 기록 도중 끊긴 마지막 줄
+                }
+                try {
+                    latest.computeIfAbsent(parts[0], key -> new HashMap<>())
+                            .put(Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+                } catch (NumberFormatException e) {
+                    log.warn("장바구니 저널 항목 무시: {}", entry);
+                }
+            }
+        }
+        int restored = 0;
+        for (Map.Entry<String, Map<Long, Integer>> entry : latest.entrySet()) {
+            Long userId = userRepository.findIdByEmail(entry.getKey()).orElse(null);
+            if (userId == null) {
+                continue;
+            }
+            UserCart cart = new UserCart(entry.getKey(), userId);
+            if (!write(cart, entry.getValue())) {
+                throw new IllegalStateException("장바구니 저널 복구 실패: user=" + entry.getKey());
+            }
+            restored += entry.getValue().size();
+        }
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+        log.info("장바구니 저널 복구 완료: users={}, lines={}", latest.size(), restored);
+    }
+
+    // 교체된 파일(cart-journal.log.<nanoTime>)이 먼저, 현재 파일이 마지막
+    private long journalOrder(Path path) {
+        String name = path.getFileName().toString();
+        if (name.equals(JOURNAL_FILE)) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(name.substring(JOURNAL_FILE.length() + 1));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            return Long.MAX_VALUE - 1;
+        }
+    }
+
+    private void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (!"none".equals(fsyncMode)) {
+                channel.force(false);
+            }
+            channel.close();
+        } catch (IOException e) {
+            log.warn("장바구니 저널 닫기 실패: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.company.baseballshop.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+// 파일 시스템 저장소 (storage.type=local). {root}/{bucket}/{key} 경로에 저장해 S3 없이 업로드/삭제 흐름을 확인할 수 있다
+@Slf4j
+public class LocalObjectStore implements ObjectStore {
+
+    public static final String LOCAL_UPLOAD_PATH = "/local-storage/";
+
+    private final Path root;
+    // 업로드 URL을 받는 LocalStorageController의 주소 (예: http://localhost:8092)
+    private final String publicBaseUrl;
+    // 프로세스마다 새로 만드는 서명 키. 재시작하면 이전에 발급한 업로드 URL은 무효가 된다
+    private final byte[] signingKey = new byte[32];
+
+    public LocalObjectStore(Path root, String publicBaseUrl) {
+        this.root = root.toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl;
+        new SecureRandom().nextBytes(signingKey);
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String bucket, String key, InputStream body, long contentLength,
+                                       String contentType, String cacheControl) {
+        try {
+            Path target = resolve(bucket, key);
+            Files.createDirectories(target.getParent());
+            // 임시 파일에 쓴 뒤 교체해 읽는 쪽이 쓰다 만 파일을 보지 않게 한다
+            Path temp = Files.createTempFile(target.getParent(), ".upload", ".tmp");
+            try {
+                Files.copy(body, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException(e));
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String bucket, String key, byte[] body, String contentType, String cacheControl) {
+        return put(bucket, key, new ByteArrayInputStream(body), body.length, contentType, cacheControl);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> get(String bucket, String key) {
+        try {
+            return CompletableFuture.completedFuture(Files.readAllBytes(resolve(bucket, key)));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException(e));
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<String>> deleteAll(String bucket, List<String> keys) {
+        List<String> failed = new ArrayList<>();
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(resolve(bucket, key));
+            } catch (NoSuchFileException e) {
+                // S3와 같이 없는 키 삭제는 성공으로 본다
+            } catch (IOException e) {
+                log.warn("로컬 객체 삭제 실패: bucket={}, key={}, error={}", bucket, key, e.getMessage());
+                failed.add(key);
+            }
+        }
+        return CompletableFuture.completedFuture(failed);
+    }
+
+    // 페이지마다 디렉터리를 다시 훑어 정렬하므로 개발용 규모에서만 쓴다
+    @Override
+    public CompletableFuture<ObjectListing> list(String bucket, String continuationToken) {
+        Path bucketRoot = root.resolve(bucket);
+        if (!Files.isDirectory(bucketRoot)) {
+            return CompletableFuture.completedFuture(new ObjectListing(List.of(), null));
+        }
+        try (Stream<Path> paths = Files.walk(bucketRoot)) {
+            List<Path> page = paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().startsWith(".upload"))
+                    .filter(path -> continuationToken == null || keyOf(bucketRoot, path).compareTo(continuationToken) > 0)
+                    .sorted((a, b) -> keyOf(bucketRoot, a).compareTo(keyOf(bucketRoot, b)))
+                    .limit(MAX_DELETE_BATCH)
+                    .toList();
+            List<StoredObject> objects = new ArrayList<>(page.size());
+            for (Path path : page) {
+                objects.add(new StoredObject(keyOf(bucketRoot, path), Files.getLastModifiedTime(path).toInstant()));
+            }
+            String nextToken = objects.size() == MAX_DELETE_BATCH ? objects.get(objects.size() - 1).key() : null;
+            return CompletableFuture.completedFuture(new ObjectListing(objects, nextToken));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException(e));
+        }
+    }
+
+    // 로컬 파일에는 메타데이터가 없으므로 Content-Type은 확장자/파일 앞부분으로 추정한다
+    @Override
+    public CompletableFuture<ObjectInfo> head(String bucket, String key) {
+        try {
+            Path path = resolve(bucket, key);
+            if (!Files.isRegularFile(path)) {
+                return CompletableFuture.completedFuture(null);
+            }
+            String contentType = URLConnection.guessContentTypeFromName(path.getFileName().toString());
+            if (contentType == null) {
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+                    contentType = URLConnection.guessContentTypeFromStream(in);
+                }
+            }
+            return CompletableFuture.completedFuture(new ObjectInfo(Files.size(path), contentType));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException(e));
+        }
+    }
+
+    // S3 서명 URL 대신 HMAC 서명을 붙인 LocalStorageController 주소를 돌려준다 (SHA-256 검증은 하지 않음)
+    @Override
+    public PresignedUpload presignPut(String bucket, String key, String contentType, long contentLength,
+                                      String checksumSha256, Duration ttl) {
+        Instant expiresAt = Instant.now().plus(ttl);
+        long expires = expiresAt.getEpochSecond();
+        String url = publicBaseUrl + LOCAL_UPLOAD_PATH + bucket + "/" + key
+                + "?expires=" + expires
+                + "&signature=" + URLEncoder.encode(sign(bucket, key, contentType, contentLength, expires), StandardCharsets.UTF_8);
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", contentType);
+        headers.put("Content-Length", String.valueOf(contentLength));
+        return new PresignedUpload(url, headers, expiresAt);
+    }
+
+    public boolean verifyUpload(String bucket, String key, String contentType, long contentLength,
+                                long expires, String signature) {
+        if (signature == null || Instant.now().getEpochSecond() > expires) {
+            return false;
+        }
+        byte[] expected = sign(bucket, key, contentType, contentLength, expires).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String sign(String bucket, String key, String contentType, long contentLength, long expires) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(signingKey, "HmacSHA256"));
+            String payload = String.join("\n", bucket, key, String.valueOf(contentType), String.valueOf(contentLength),
+                    String.valueOf(expires));
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String keyOf(Path bucketRoot, Path path) {
+        return bucketRoot.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+    }
+
+    // 키에 ../ 등이 섞여 루트 밖으로 나가지 않게 막는다
+    private Path resolve(String bucket, String key) throws IOException {
+        Path path = root.resolve(bucket).resolve(key).normalize();
+        if (!path.startsWith(root.resolve(bucket))) {
+            throw new IOException("잘못된 객체 키입니다: " + key);
+        }
+        return path;
+    }
+}
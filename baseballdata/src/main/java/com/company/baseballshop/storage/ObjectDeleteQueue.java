@@ -0,0 +1,106 @@
+package com.company.baseballshop.storage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// 객체 삭제를 요청 스레드에서 떼어내 모아 두었다가 버킷별 DeleteObjects(최대 1000개) 배치로 보낸다
+@Slf4j
+@Component
+public class ObjectDeleteQueue {
+
+    private record PendingDelete(String bucket, String key, int attempts) {
+    }
+
+    private final ObjectStore objectStore;
+    private final LinkedBlockingQueue<PendingDelete> queue;
+
+    @Value("${storage.delete.max-attempts:3}")
+    private int maxAttempts;
+
+    public ObjectDeleteQueue(ObjectStore objectStore, @Value("${storage.delete.queue-capacity:100000}") int capacity) {
+        this.objectStore = objectStore;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    public void enqueue(String bucket, Collection<String> keys) {
+        for (String key : keys) {
+            if (!queue.offer(new PendingDelete(bucket, key, 0))) {
+                // 남은 객체는 고아 객체 정리 작업이 지운다
+                log.warn("삭제 대기열이 가득 차 삭제를 건너뜀: bucket={}, key={}", bucket, key);
+            }
+        }
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    @Scheduled(fixedDelayString = "${storage.delete.flush-interval-ms:1000}")
+    public void flush() {
+        // 시작 시점에 쌓여 있던 만큼만 처리 (이번 주기에 다시 넣은 재시도 항목은 다음 주기에)
+        int remaining = queue.size();
+        while (remaining > 0) {
+            List<PendingDelete> drained = new ArrayList<>();
+            queue.drainTo(drained, Math.min(remaining, ObjectStore.MAX_DELETE_BATCH * 4));
+            if (drained.isEmpty()) {
+                return;
+            }
+            remaining -= drained.size();
+            Map<String, List<PendingDelete>> byBucket = new LinkedHashMap<>();
+            drained.forEach(item -> byBucket.computeIfAbsent(item.bucket(), k -> new ArrayList<>()).add(item));
+
+            List<CompletableFuture<Void>> batches = new ArrayList<>();
+            byBucket.forEach((bucket, items) -> {
+                for (int from = 0; from < items.size(); from += ObjectStore.MAX_DELETE_BATCH) {
+                    batches.add(sendBatch(bucket, items.subList(from, Math.min(from + ObjectStore.MAX_DELETE_BATCH, items.size()))));
+                }
+            });
+            CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
+        }
+    }
+
+    private CompletableFuture<Void> sendBatch(String bucket, List<PendingDelete> items) {
+        Map<String, PendingDelete> byKey = new LinkedHashMap<>();
+        items.forEach(item -> byKey.put(item.key(), item)); // 같은 키가 여러 번 들어와도 한 번만 보낸다
+        return objectStore.deleteAll(bucket, new ArrayList<>(byKey.keySet()))
+                .handle((failedKeys, error) -> {
+                    if (error != null) {
+                        log.warn("객체 일괄 삭제 실패: bucket={}, keys={}, error={}", bucket, byKey.size(), error.getMessage());
+                        byKey.values().forEach(this::retry);
+                    } else {
+                        failedKeys.forEach(key -> retry(byKey.get(key)));
+                        log.debug("객체 일괄 삭제: bucket={}, keys={}, failed={}", bucket, byKey.size(), failedKeys.size());
+                    }
+                    return null;
+                });
+    }
+
+    private void retry(PendingDelete item) {
+        if (item == null) {
+            return;
+        }
+        if (item.attempts() + 1 >= maxAttempts) {
+            log.warn("객체 삭제 재시도 포기: bucket={}, key={}", item.bucket(), item.key());
+            return;
+        }
+        if (!queue.offer(new PendingDelete(item.bucket(), item.key(), item.attempts() + 1))) {
+            log.warn("삭제 대기열이 가득 차 재시도를 건너뜀: bucket={}, key={}", item.bucket(), item.key());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
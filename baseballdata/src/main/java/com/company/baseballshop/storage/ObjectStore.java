@@ -0,0 +1,50 @@
+package com.company.baseballshop.storage;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// 이미지 객체 저장소. 운영은 S3AsyncClient, 로컬/오프라인 테스트는 파일 시스템 구현을 쓴다 (storage.type)
+public interface ObjectStore {
+
+    // DeleteObjects 한 번에 보낼 수 있는 최대 키 수
+    int MAX_DELETE_BATCH = 1000;
+
+    record StoredObject(String key, Instant lastModified) {
+    }
+
+    // nextToken이 null이면 마지막 페이지
+    record ObjectListing(List<StoredObject> objects, String nextToken) {
+    }
+
+    record ObjectInfo(long contentLength, String contentType) {
+    }
+
+    // 클라이언트는 url에 headers를 그대로 붙여 PUT 한다
+    record PresignedUpload(String url, Map<String, String> headers, Instant expiresAt) {
+    }
+
+    // body는 future가 끝날 때까지 호출자가 열어 두어야 한다
+    CompletableFuture<Void> put(String bucket, String key, InputStream body, long contentLength,
+                                String contentType, String cacheControl);
+
+    CompletableFuture<Void> put(String bucket, String key, byte[] body, String contentType, String cacheControl);
+
+    CompletableFuture<byte[]> get(String bucket, String key);
+
+    // 최대 MAX_DELETE_BATCH개를 한 번에 삭제하고, 실패한 키 목록을 돌려준다
+    CompletableFuture<List<String>> deleteAll(String bucket, List<String> keys);
+
+    // 키 순서로 한 페이지(최대 1000개)씩 나열. 첫 페이지는 continuationToken에 null
+    CompletableFuture<ObjectListing> list(String bucket, String continuationToken);
+
+    // 객체가 없으면 null로 완료
+    CompletableFuture<ObjectInfo> head(String bucket, String key);
+
+    // 서버를 거치지 않고 클라이언트가 바로 올리는 PUT URL. Content-Type/Content-Length(와 SHA-256)가 서명에 묶인다
+    PresignedUpload presignPut(String bucket, String key, String contentType, long contentLength,
+                               String checksumSha256, Duration ttl);
+}
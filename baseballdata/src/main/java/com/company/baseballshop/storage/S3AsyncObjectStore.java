@@ -0,0 +1,196 @@
+package com.company.baseballshop.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.BytesWrapper;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// S3AsyncClient 기반 저장소. 동시에 진행 중인 요청 수를 세마포어로 제한해 커넥션 풀과 S3 쪽 부하를 묶어 둔다
+@Slf4j
+public class S3AsyncObjectStore implements ObjectStore, AutoCloseable {
+
+    private final S3AsyncClient client;
+    private final S3Presigner presigner;
+    private final Semaphore inFlight;
+    private final long acquireTimeoutMs;
+    // 업로드 InputStream을 읽어 SDK로 넘기는 스레드 (요청 스레드를 막지 않음)
+    private final ExecutorService streamExecutor;
+
+    public S3AsyncObjectStore(S3AsyncClient client, S3Presigner presigner, int maxInFlight, long acquireTimeoutMs,
+                              int streamThreads) {
+        this.client = client;
+        this.presigner = presigner;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        AtomicInteger sequence = new AtomicInteger();
+        this.streamExecutor = Executors.newFixedThreadPool(streamThreads, runnable -> {
+            Thread thread = new Thread(runnable, "s3-upload-stream-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void close() {
+        streamExecutor.shutdown();
+        presigner.close();
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String bucket, String key, InputStream body, long contentLength,
+                                       String contentType, String cacheControl) {
+        return limited(() -> client.putObject(putRequest(bucket, key, contentLength, contentType, cacheControl),
+                AsyncRequestBody.fromInputStream(body, contentLength, streamExecutor))).thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String bucket, String key, byte[] body, String contentType, String cacheControl) {
+        return limited(() -> client.putObject(putRequest(bucket, key, body.length, contentType, cacheControl),
+                AsyncRequestBody.fromBytes(body))).thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> get(String bucket, String key) {
+        return limited(() -> client.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build(),
+                AsyncResponseTransformer.toBytes())).thenApply(BytesWrapper::asByteArray);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> deleteAll(String bucket, List<String> keys) {
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        if (keys.size() > MAX_DELETE_BATCH) {
+            throw new IllegalArgumentException("한 번에 삭제할 수 있는 키는 최대 " + MAX_DELETE_BATCH + "개입니다.");
+        }
+        List<ObjectIdentifier> objects = keys.stream()
+                .map(key -> ObjectIdentifier.builder().key(key).build())
+                .toList();
+        DeleteObjectsRequest request = DeleteObjectsRequest.builder()
+                .bucket(bucket)
+                .delete(Delete.builder().objects(objects).quiet(true).build())
+                .build();
+        // quiet 모드: 응답에는 실패한 키만 담긴다
+        return limited(() -> client.deleteObjects(request)).thenApply(response -> {
+            for (S3Error error : response.errors()) {
+                log.warn("S3 객체 삭제 실패: bucket={}, key={}, code={}", bucket, error.key(), error.code());
+            }
+            return response.errors().stream().map(S3Error::key).toList();
+        });
+    }
+
+    @Override
+    public CompletableFuture<ObjectListing> list(String bucket, String continuationToken) {
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .maxKeys(MAX_DELETE_BATCH)
+                .continuationToken(continuationToken)
+                .build();
+        return limited(() -> client.listObjectsV2(request)).thenApply(response -> new ObjectListing(
+                response.contents().stream()
+                        .map(object -> new StoredObject(object.key(), object.lastModified()))
+                        .toList(),
+                Boolean.TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null));
+    }
+
+    @Override
+    public CompletableFuture<ObjectInfo> head(String bucket, String key) {
+        return limited(() -> client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build()))
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return new ObjectInfo(response.contentLength(), response.contentType());
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof S3Exception s3 && s3.statusCode() == 404) {
+                        return null;
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    // 서명은 로컬 계산이라 S3 호출이 없으므로 동시 요청 제한을 거치지 않는다
+    @Override
+    public PresignedUpload presignPut(String bucket, String key, String contentType, long contentLength,
+                                      String checksumSha256, Duration ttl) {
+        PutObjectRequest.Builder put = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(contentLength);
+        if (checksumSha256 != null) {
+            // S3가 본문의 SHA-256을 직접 검증하므로 선언한 해시와 다른 내용은 저장되지 않는다
+            put.checksumSHA256(checksumSha256);
+        }
+        PresignedPutObjectRequest presigned = presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(put.build())
+                .build());
+        Map<String, String> headers = new LinkedHashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!name.equalsIgnoreCase("host")) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return new PresignedUpload(presigned.url().toString(), headers, presigned.expiration());
+    }
+
+    private PutObjectRequest putRequest(String bucket, String key, long contentLength, String contentType, String cacheControl) {
+        return PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentLength(contentLength)
+                .contentType(contentType)
+                .cacheControl(cacheControl)
+                .build();
+    }
+
+    // 허용치를 넘으면 잠시 기다리고, 그래도 자리가 없으면 503으로 빠르게 실패시킨다
+    private <T> CompletableFuture<T> limited(Supplier<CompletableFuture<T>> call) {
+        try {
+            if (!inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return CompletableFuture.failedFuture(
+                        new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "이미지 저장소 요청이 많습니다. 잠시 후 다시 시도해 주세요."));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, error) -> inFlight.release());
+    }
+}
@@ -0,0 +1,193 @@
+package com.company.baseballshop.service;
+
+import com.company.baseballshop.model.Product;
+import com.company.baseballshop.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// 플래시 세일 시작/종료와 DB 경로 예약이 동시에 돌 때 초과 판매가 없는지 확인
+class FlashSaleServiceTest {
+
+    private static final long PRODUCT_ID = 1L;
+    private static final int STOCK = 500;
+
+    // products.stock과 그 행 잠금 (SELECT ... FOR UPDATE는 트랜잭션이 끝날 때 풀린다)
+    private final AtomicInteger dbStock = new AtomicInteger(STOCK);
+    private final ReentrantLock rowLock = new ReentrantLock();
+    private final AtomicBoolean dbDown = new AtomicBoolean(false);
+    private FlashSaleService flashSaleService;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findByIdForUpdate(PRODUCT_ID)).thenAnswer(invocation -> {
+            rowLock.lock();
+            Product product = new Product();
+            product.setStock(dbStock.get());
+            return Optional.of(product);
+        });
+        when(productRepository.decrementStockUnchecked(anyLong(), anyInt())).thenAnswer(invocation -> {
+            dbStock.addAndGet(-(int) invocation.getArgument(1));
+            return 1;
+        });
+        when(productRepository.incrementStock(anyLong(), anyInt())).thenAnswer(invocation -> {
+            if (dbDown.get()) {
+                throw new IllegalStateException("db down");
+            }
+            dbStock.addAndGet((int) invocation.getArgument(1));
+            return 1;
+        });
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        doAnswer(invocation -> {
+            releaseRowLock();
+            return null;
+        }).when(transactionManager).commit(any());
+        doAnswer(invocation -> {
+            releaseRowLock();
+            return null;
+        }).when(transactionManager).rollback(any());
+
+        flashSaleService = new FlashSaleService(productRepository, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(flashSaleService, "admissionTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(flashSaleService, "returnAttempts", 3);
+    }
+
+    private void releaseRowLock() {
+        while (rowLock.isHeldByCurrentThread()) {
+            rowLock.unlock();
+        }
+    }
+
+    // StockReservationBatchRepository.decrementAll과 같은 조건부 차감
+    private boolean decrementInDb(int quantity) {
+        rowLock.lock();
+        try {
+            if (dbStock.get() < quantity) {
+                return false;
+            }
+            dbStock.addAndGet(-quantity);
+            return true;
+        } finally {
+            rowLock.unlock();
+        }
+    }
+
+    @Test
+    void activationRacingDbReservationsAndDeactivateNeverOversell() throws Exception {
+        AtomicInteger flashSold = new AtomicInteger();
+        AtomicInteger dbSold = new AtomicInteger();
+        AtomicBoolean stop = new AtomicBoolean(false);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < 24; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                while (!stop.get()) {
+                    int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+                    FlashSaleService.ClaimResult result = flashSaleService.tryClaim(PRODUCT_ID, quantity);
+                    if (result == FlashSaleService.ClaimResult.CLAIMED) {
+                        // 일부 주문은 결제 실패로 반환
+                        if (ThreadLocalRandom.current().nextInt(5) == 0) {
+                            if (!flashSaleService.release(PRODUCT_ID, quantity)) {
+                                dbStock.addAndGet(quantity);
+                            }
+                        } else {
+                            flashSold.addAndGet(quantity);
+                        }
+                    } else if (result == FlashSaleService.ClaimResult.NOT_ACTIVE && decrementInDb(quantity)) {
+                        dbSold.addAndGet(quantity);
+                    }
+                }
+                return null;
+            }));
+        }
+        // 세일 시작 전에 카운터를 확인하고 DB 차감만 늦게 도착하는 예약
+        for (int t = 0; t < 4; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                while (!stop.get()) {
+                    if (decrementInDb(1)) {
+                        dbSold.incrementAndGet();
+                    }
+                    TimeUnit.MICROSECONDS.sleep(ThreadLocalRandom.current().nextInt(200));
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        TimeUnit.MILLISECONDS.sleep(5);
+        flashSaleService.activate(PRODUCT_ID, 8, 64);
+        TimeUnit.MILLISECONDS.sleep(50);
+        flashSaleService.deactivate(PRODUCT_ID);
+        TimeUnit.MILLISECONDS.sleep(20);
+        stop.set(true);
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(flashSaleService.isActive(PRODUCT_ID)).isFalse();
+        assertThat(flashSold.get() + dbSold.get()).isLessThanOrEqualTo(STOCK);
+        assertThat(dbStock.get()).isEqualTo(STOCK - flashSold.get() - dbSold.get());
+    }
+
+    @Test
+    void activationMovesStockIntoCounterAndDeactivateReturnsRemaining() {
+        flashSaleService.activate(PRODUCT_ID, 4, 16);
+        assertThat(dbStock.get()).isZero();
+        assertThat(flashSaleService.status(PRODUCT_ID)).containsEntry("remaining", STOCK);
+        assertThat(decrementInDb(1)).isFalse();
+
+        assertThat(flashSaleService.tryClaim(PRODUCT_ID, 7)).isEqualTo(FlashSaleService.ClaimResult.CLAIMED);
+        flashSaleService.deactivate(PRODUCT_ID);
+        assertThat(dbStock.get()).isEqualTo(STOCK - 7);
+    }
+
+    @Test
+    void failedReturnKeepsSaleOpenUntilStockIsBack() {
+        flashSaleService.activate(PRODUCT_ID, 4, 16);
+        assertThat(flashSaleService.tryClaim(PRODUCT_ID, 7)).isEqualTo(FlashSaleService.ClaimResult.CLAIMED);
+
+        dbDown.set(true);
+        assertThatThrownBy(() -> flashSaleService.deactivate(PRODUCT_ID)).isInstanceOf(ResponseStatusException.class);
+        assertThat(flashSaleService.isActive(PRODUCT_ID)).isTrue();
+        assertThat(dbStock.get()).isZero();
+        // 종료가 취소되면 다시 카운터에서 판매한다
+        assertThat(flashSaleService.tryClaim(PRODUCT_ID, 3)).isEqualTo(FlashSaleService.ClaimResult.CLAIMED);
+
+        dbDown.set(false);
+        flashSaleService.deactivate(PRODUCT_ID);
+        assertThat(flashSaleService.isActive(PRODUCT_ID)).isFalse();
+        assertThat(dbStock.get()).isEqualTo(STOCK - 10);
+    }
+}
@@ -0,0 +1,271 @@
+package com.company.baseballshop.service;
+
+import com.company.baseballshop.dto.CartItemDTO;
+import com.company.baseballshop.dto.ProductSummary;
+import com.company.baseballshop.repository.CartItemBatchRepository;
+import com.company.baseballshop.repository.CartItemRepository;
+import com.company.baseballshop.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// 장바구니 write-behind: 저널 복구와 장바구니별 반영 순서
+class WriteBehindCartStoreTest {
+
+    private static final String EMAIL = "user@example.com";
+    private static final long USER_ID = 7L;
+
+    @TempDir
+    Path journalDir;
+
+    // cart_items 대신 쓰는 productId -> quantity
+    private final Map<Long, Integer> db = new ConcurrentHashMap<>();
+    private final AtomicBoolean dbDown = new AtomicBoolean(false);
+    private final AtomicBoolean slowWrites = new AtomicBoolean(false);
+    // 장바구니에 담긴 뒤 삭제된 상품 (cart_items FK 위반)
+    private final Set<Long> deletedProducts = ConcurrentHashMap.newKeySet();
+    private CartItemBatchRepository cartItemBatchRepository;
+    private UserRepository userRepository;
+    private CartItemRepository cartItemRepository;
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findIdByEmail(anyString())).thenReturn(Optional.of(USER_ID));
+        cartItemRepository = mock(CartItemRepository.class);
+        when(cartItemRepository.findCartLinesByEmail(anyString())).thenAnswer(invocation -> {
+            List<CartItemDTO> rows = new ArrayList<>();
+            db.forEach((productId, quantity) -> {
+                CartItemDTO row = new CartItemDTO();
+                row.setId(productId * 100);
+                row.setProductId(productId);
+                row.setQuantity(quantity);
+                rows.add(row);
+            });
+            return rows;
+        });
+
+        List<ProductSummary> products = new ArrayList<>();
+        for (long id = 1; id <= 13; id++) {
+            products.add(new ProductSummary(id, "product-" + id, "brand", "bat", 10000, null, null, false, 100, null, null));
+        }
+        products.add(new ProductSummary(14L, "product-14", "brand", "bat", 10000, null, null, false, 2, null, null));
+        catalogCache = mock(CatalogCache.class);
+        when(catalogCache.current()).thenReturn(CatalogSnapshot.of(1L, products));
+
+        cartItemBatchRepository = mock(CartItemBatchRepository.class);
+        doAnswer(invocation -> {
+            failIfDown();
+            List<CartItemBatchRepository.Line> lines = invocation.getArgument(1);
+            if (lines.stream().anyMatch(line -> deletedProducts.contains(line.productId()))) {
+                throw new DataIntegrityViolationException("fk_cart_items_product");
+            }
+            for (CartItemBatchRepository.Line line : lines) {
+                db.put(line.productId(), line.quantity());
+            }
+            return null;
+        }).when(cartItemBatchRepository).setAll(anyLong(), anyList());
+        doAnswer(invocation -> {
+            failIfDown();
+            List<Long> productIds = invocation.getArgument(1);
+            productIds.forEach(db::remove);
+            return null;
+        }).when(cartItemBatchRepository).deleteAll(anyLong(), anyList());
+    }
+
+    private void failIfDown() throws InterruptedException {
+        if (dbDown.get()) {
+            throw new IllegalStateException("db down");
+        }
+        if (slowWrites.get()) {
+            // 먼저 읽은 쓰기가 나중에 끝나는 상황을 만든다
+            TimeUnit.MICROSECONDS.sleep(ThreadLocalRandom.current().nextInt(500));
+        }
+    }
+
+    private WriteBehindCartStore newStore() throws Exception {
+        WriteBehindCartStore store = new WriteBehindCartStore(cartItemRepository, cartItemBatchRepository, userRepository,
+                catalogCache, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "idleEvictMinutes", 30L);
+        ReflectionTestUtils.setField(store, "journalDir", journalDir.toString());
+        ReflectionTestUtils.setField(store, "fsyncMode", "always");
+        store.init();
+        return store;
+    }
+
+    @Test
+    void replaysJournalsLeftByCrashMidWrite() throws Exception {
+        WriteBehindCartStore store = newStore();
+        store.add(EMAIL, 10L, 2);
+        store.add(EMAIL, 11L, 1);
+        store.flushAll();
+        assertThat(db).containsExactlyInAnyOrderEntriesOf(Map.of(10L, 2, 11L, 1));
+
+        // DB 장애 중 변경 -> 교체된 저널이 지워지지 않고 남는다
+        dbDown.set(true);
+        store.add(EMAIL, 10L, 3);
+        store.applyBatch(EMAIL, List.of(), List.of(), List.of(11L));
+        store.flushAll();
+        store.add(EMAIL, 12L, 4);
+
+        // 저널 기록 도중 프로세스가 죽어 마지막 줄이 잘린 상태
+        Files.writeString(journalDir.resolve("cart-journal.log"), EMAIL + "\t13",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        try (Stream<Path> files = Files.list(journalDir)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+
+        // 재시작: 남은 저널을 순서대로 읽어 DB에 반영
+        dbDown.set(false);
+        WriteBehindCartStore restarted = newStore();
+        assertThat(db).containsExactlyInAnyOrderEntriesOf(Map.of(10L, 5, 12L, 4));
+        try (Stream<Path> files = Files.list(journalDir)) {
+            assertThat(files.map(path -> path.getFileName().toString()).toList()).containsExactly("cart-journal.log");
+        }
+        assertThat(Files.size(journalDir.resolve("cart-journal.log"))).isZero();
+        restarted.shutdown();
+    }
+
+    @Test
+    void lineThatCanNeverBeWrittenIsDroppedAndTheRestIsSaved() throws Exception {
+        WriteBehindCartStore store = newStore();
+        store.add(EMAIL, 10L, 2);
+        store.add(EMAIL, 11L, 1);
+        deletedProducts.add(11L);
+
+        // 결제 직전 플러시가 매번 실패하지 않는다
+        store.flush(EMAIL);
+        assertThat(db).containsExactlyInAnyOrderEntriesOf(Map.of(10L, 2));
+        assertThat(store.getLines(EMAIL)).extracting(CartItemDTO::getProductId).containsExactly(10L);
+
+        // 다시 시도하지 않으므로 교체된 저널도 지워진다
+        store.add(EMAIL, 12L, 4);
+        store.flushAll();
+        assertThat(db).containsExactlyInAnyOrderEntriesOf(Map.of(10L, 2, 12L, 4));
+        try (Stream<Path> files = Files.list(journalDir)) {
+            assertThat(files.map(path -> path.getFileName().toString()).toList()).containsExactly("cart-journal.log");
+        }
+        store.shutdown();
+    }
+
+    @Test
+    void replaySkipsEntriesThatCanNeverBeWritten() throws Exception {
+        Files.writeString(journalDir.resolve("cart-journal.log"),
+                EMAIL + "\t10\t2\n" + EMAIL + "\t11\t3\n", StandardCharsets.UTF_8);
+        deletedProducts.add(11L);
+
+        WriteBehindCartStore store = newStore();
+        assertThat(db).containsExactlyInAnyOrderEntriesOf(Map.of(10L, 2));
+        assertThat(Files.size(journalDir.resolve("cart-journal.log"))).isZero();
+        store.shutdown();
+    }
+
+    @Test
+    void inStockMeansEnoughStockForTheQuantity() throws Exception {
+        WriteBehindCartStore store = newStore();
+        store.add(EMAIL, 14L, 2);
+        assertThat(store.getLines(EMAIL).get(0).getInStock()).isTrue();
+
+        store.add(EMAIL, 14L, 1);
+        assertThat(store.getLines(EMAIL).get(0).getInStock()).isFalse();
+        store.shutdown();
+    }
+
+    @Test
+    void checkoutKeepsLinesChangedWhileOrdering() throws Exception {
+        WriteBehindCartStore store = newStore();
+        store.add(EMAIL, 10L, 2);
+        store.add(EMAIL, 11L, 1);
+        store.flush(EMAIL);
+
+        // 결제가 {10: 2, 11: 1}을 주문으로 옮기는 동안 11의 수량을 바꿈
+        store.applyBatch(EMAIL, List.of(), List.of(new CartItemBatchRepository.Line(11L, 3)), List.of());
+        db.clear();
+        store.removeProducts(EMAIL, Map.of(10L, 2, 11L, 1));
+        store.flushAll();
+
+        assertThat(db).containsExactlyInAnyOrderEntriesOf(Map.of(11L, 3));
+        store.shutdown();
+    }
+
+    @Test
+    void concurrentFlushesNeverLeaveStaleQuantities() throws Exception {
+        WriteBehindCartStore store = newStore();
+        slowWrites.set(true);
+        AtomicBoolean stop = new AtomicBoolean(false);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                while (!stop.get()) {
+                    long productId = ThreadLocalRandom.current().nextLong(1, 6);
+                    int quantity = ThreadLocalRandom.current().nextInt(0, 5);
+                    store.applyBatch(EMAIL, List.of(), List.of(new CartItemBatchRepository.Line(productId, Math.max(quantity, 1))),
+                            quantity == 0 ? List.of(productId) : List.of());
+                    store.flush(EMAIL);
+                }
+                return null;
+            }));
+        }
+        futures.add(pool.submit(() -> {
+            start.await();
+            while (!stop.get()) {
+                store.flushAll();
+            }
+            return null;
+        }));
+
+        start.countDown();
+        TimeUnit.MILLISECONDS.sleep(500);
+        stop.set(true);
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        store.flushAll();
+
+        Map<Long, Integer> memory = new HashMap<>();
+        for (CartItemDTO line : store.getLines(EMAIL)) {
+            memory.put(line.getProductId(), line.getQuantity());
+        }
+        assertThat(db).containsExactlyInAnyOrderEntriesOf(memory);
+        store.shutdown();
+    }
+}
@@ -7,6 +7,10 @@ DROP TABLE IF EXISTS orders;
 DROP TABLE IF EXISTS review_comments;
 DROP TABLE IF EXISTS cart_items;
 DROP TABLE IF EXISTS products;
+DROP TABLE IF EXISTS stock_reservations;
+DROP TABLE IF EXISTS idempotency_keys;
+DROP TABLE IF EXISTS product_rating_summaries;
+DROP TABLE IF EXISTS image_objects;
 set foreign_key_checks = 1;
 
 
@@ -35,6 +39,9 @@ CREATE TABLE products (
     stock INT NOT NULL DEFAULT 0,
     category VARCHAR(50) NOT NULL,
     image VARCHAR(500) NOT NULL,
+    image_thumbnail_url VARCHAR(500), -- 이미지 파이프라인 변형 (200px)
+    image_list_url VARCHAR(500), -- 목록용 (480px)
+    image_detail_url VARCHAR(500), -- 상세용 (1080px)
     is_discounted BOOLEAN NOT NULL DEFAULT FALSE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
@@ -48,7 +55,8 @@ CREATE TABLE cart_items (
     product_id BIGINT NOT NULL,
     quantity INT NOT NULL,
     FOREIGN KEY (user_id) REFERENCES users(id),
-    FOREIGN KEY (product_id) REFERENCES products(id)
+    FOREIGN KEY (product_id) REFERENCES products(id),
+    CONSTRAINT uk_cart_user_product UNIQUE (user_id, product_id) -- 같은 상품은 한 줄로 (upsert 기준)
 ) ENGINE=InnoDB;
 
 -- orders 테이블 생성
@@ -62,6 +70,7 @@ CREATE TABLE orders (
     customer_address VARCHAR(500) NOT NULL,
     payment_method VARCHAR(50) NOT NULL,
     status VARCHAR(50) NOT NULL DEFAULT 'PENDING', -- 주문 상태 (PENDING, COMPLETED, FAILED 등)
+    payment_key VARCHAR(100), -- 포트원 paymentId (정산 작업용)
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id)
@@ -86,6 +95,9 @@ CREATE TABLE reviews (
     nickname VARCHAR(50) NOT NULL,
     content TEXT NOT NULL,
     image_url VARCHAR(255), -- imageUrl 필드 추가
+    image_thumbnail_url VARCHAR(500), -- 이미지 파이프라인 변형
+    image_list_url VARCHAR(500),
+    image_detail_url VARCHAR(500),
     rating INT NOT NULL, -- rating 필드 추가 (1~5)
     product_id BIGINT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -107,6 +119,60 @@ CREATE TABLE review_comments (
         ON DELETE CASCADE
 );
 
+-- stock_reservations 테이블 생성 (결제 대기 주문의 재고 예약)
+CREATE TABLE stock_reservations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    status VARCHAR(20) NOT NULL, -- HELD, COMMITTED, RELEASED
+    flash_sale BOOLEAN NOT NULL DEFAULT FALSE,
+    expires_at DATETIME NOT NULL,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP
+) ENGINE=InnoDB;
+
+-- idempotency_keys 테이블 생성 (결제 요청 중복 방지)
+CREATE TABLE idempotency_keys (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    scope_key VARCHAR(300) NOT NULL, -- 사용자 이메일:Idempotency-Key
+    request_hash VARCHAR(64) NOT NULL,
+    order_id BIGINT,
+    response_body TEXT,
+    expires_at DATETIME NOT NULL,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_idempotency_scope_key UNIQUE (scope_key)
+) ENGINE=InnoDB;
+
+-- product_rating_summaries 테이블 생성 (상품별 리뷰 평점 집계, 리뷰 변경 시 증감 갱신)
+CREATE TABLE product_rating_summaries (
+    product_id BIGINT PRIMARY KEY,
+    review_count INT NOT NULL DEFAULT 0,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
+    star1 INT NOT NULL DEFAULT 0,
+    star2 INT NOT NULL DEFAULT 0,
+    star3 INT NOT NULL DEFAULT 0,
+    star4 INT NOT NULL DEFAULT 0,
+    star5 INT NOT NULL DEFAULT 0,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_rating_summaries_product_id
+        FOREIGN KEY (product_id) REFERENCES products (id)
+        ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- image_objects 테이블 생성 (내용 해시로 키를 정한 S3 이미지와 참조 수)
+CREATE TABLE image_objects (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    bucket VARCHAR(100) NOT NULL,
+    object_key VARCHAR(300) NOT NULL, -- products/sha256/{해시}.{확장자}
+    content_hash VARCHAR(64) NOT NULL, -- SHA-256 (hex)
+    content_type VARCHAR(100),
+    size_bytes BIGINT NOT NULL,
+    ref_count INT NOT NULL DEFAULT 1,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_image_object_hash UNIQUE (bucket, content_hash),
+    CONSTRAINT uk_image_object_key UNIQUE (bucket, object_key)
+) ENGINE=InnoDB;
+
 -- 인덱스 추가 (조회 성능 최적화)
 CREATE INDEX idx_category ON products (category);
 CREATE INDEX idx_is_discounted ON products (is_discounted);
@@ -114,6 +180,17 @@ CREATE INDEX idx_user_id ON cart_items (user_id);
 CREATE INDEX idx_order_user_id ON orders (user_id);
 CREATE INDEX idx_order_status ON orders (status);
 CREATE INDEX idx_order_item_order_id ON order_items (order_id);
+-- 상품 목록 키셋 페이지네이션
+CREATE INDEX idx_product_created_id ON products (created_at, id);
+CREATE INDEX idx_product_category_created_id ON products (category, created_at, id);
+CREATE INDEX idx_product_price_id ON products (price, id);
+CREATE INDEX idx_reservation_order_id ON stock_reservations (order_id);
+CREATE INDEX idx_reservation_status_expires ON stock_reservations (status, expires_at);
+CREATE INDEX idx_idempotency_expires_at ON idempotency_keys (expires_at);
+CREATE INDEX idx_order_user_created_id ON orders (user_id, created_at, id);
+CREATE INDEX idx_review_product_created_id ON reviews (product_id, created_at, id);
+CREATE INDEX idx_review_product_rating_created_id ON reviews (product_id, rating, created_at, id);
+CREATE INDEX idx_review_comment_review_created_id ON review_comments (review_id, created_at, id);
 
 -- 데이터 삽입
 -- 기존 product 테이블 데이터